@@ -7,6 +7,7 @@ import pw.aru.libs.andeclient.entities.configurator.internal.ActualAndeClientCon
 
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnegative;
+import javax.annotation.Nullable;
 
 /**
  * The core of AndeClient. Acts as the manager of all nodes and players, and event manager.
@@ -36,6 +37,15 @@ public interface AndeClient extends NodeManager, PlayerManager, EventManager {
     @CheckReturnValue
     long userId();
 
+    /**
+     * Returns the counters of the load result cache.
+     *
+     * @return the cache stats, or null if the cache isn't enabled.
+     */
+    @Nullable
+    @CheckReturnValue
+    CacheStats loadCacheStats();
+
     /**
      * Shutdowns this AndeClient, destroying all players and nodes and freeing all used resources.
      */
@@ -71,7 +71,7 @@ public interface AndePlayer {
     long serverTime();
 
     /**
-     * Returns the current playing track, if any
+     * Returns the current playing track, if any. The track is decoded on the first call.
      *
      * @return an audio track
      */
@@ -79,6 +79,15 @@ public interface AndePlayer {
     @Nullable
     AudioTrack playingTrack();
 
+    /**
+     * Returns the current playing track, if any, encoded as sent by the node.
+     *
+     * @return an encoded audio track
+     */
+    @CheckReturnValue
+    @Nullable
+    String playingTrackString();
+
     /**
      * Returns the player current position.
      * @return the position.
@@ -63,8 +63,27 @@ public interface AndesiteNode {
     @CheckReturnValue
     CompletionStage<Stats> stats();
 
+    /**
+     * Returns the last stats received from the node, if any. Doesn't send any request to the node.
+     *
+     * @return the last received stats, or null if the node didn't send any stats yet.
+     */
+    @Nullable
+    @CheckReturnValue
+    Stats lastStats();
+
+    /**
+     * Returns a snapshot of this node's client-side metrics.
+     *
+     * @return this node's metrics.
+     */
+    @Nonnull
+    @CheckReturnValue
+    Metrics metrics();
+
     /**
      * Loads tracks based on a given identifier.
+     * Concurrent loads of the same identifier share a single request, and the same result with the same track instances.
      *
      * @param identifier the identifier to try to load tracks.
      * @return a completion stage which completes with a load result.
@@ -219,4 +238,112 @@ public interface AndesiteNode {
 
         long deficitFrames();
     }
+
+    /**
+     * Metrics gathered by AndeClient about the connection to the node.
+     */
+    @Value.Immutable
+    @SimpleData
+    interface Metrics {
+        /**
+         * Returns the amount of messages waiting to be sent to the node.
+         *
+         * @return the size of the outgoing queue.
+         */
+        int outgoingQueueSize();
+
+        /**
+         * Returns the amount of messages discarded because the outgoing queue was full.
+         *
+         * @return the amount of dropped messages.
+         */
+        long droppedOutgoing();
+
+        /**
+         * Returns the amount of control payloads waiting for the node to acknowledge them.
+         *
+         * @return the amount of pending acknowledgements.
+         */
+        int pendingAcks();
+
+        /**
+         * Returns the amount of track loads which shared the request of an identical load already in flight.
+         *
+         * @return the amount of coalesced loads.
+         */
+        long coalescedLoads();
+
+        /**
+         * Returns the round-trip latency of the websocket pings sent to the node.
+         *
+         * @return the websocket ping latency.
+         */
+        @Nonnull
+        Latency websocketLatency();
+
+        /**
+         * Returns the round-trip latency of the {@code ping} payloads sent to the node.
+         *
+         * @return the payload ping latency.
+         */
+        @Nonnull
+        Latency payloadLatency();
+
+        /**
+         * Returns the latency of the track loads requested from the node, until their result is decoded.
+         *
+         * @return the track load latency.
+         */
+        @Nonnull
+        Latency loadLatency();
+    }
+
+    /**
+     * Round-trip latency measured by AndeClient. All values are in nanoseconds.
+     */
+    @Value.Immutable
+    @SimpleData
+    interface Latency {
+        /**
+         * Returns the amount of round-trips measured.
+         *
+         * @return the amount of samples.
+         */
+        long samples();
+
+        /**
+         * Returns the last measured round-trip time.
+         *
+         * @return the last value in nanoseconds, or 0 if there are no samples.
+         */
+        long last();
+
+        /**
+         * Returns the exponentially weighted moving average of the round-trip time.
+         *
+         * @return the average in nanoseconds, or 0 if there are no samples.
+         */
+        double average();
+
+        /**
+         * Returns the median round-trip time.
+         *
+         * @return the value in nanoseconds, or 0 if there are no samples.
+         */
+        long p50();
+
+        /**
+         * Returns the 99th percentile of the round-trip time.
+         *
+         * @return the value in nanoseconds, or 0 if there are no samples.
+         */
+        long p99();
+
+        /**
+         * Returns the highest measured round-trip time.
+         *
+         * @return the value in nanoseconds, or 0 if there are no samples.
+         */
+        long max();
+    }
 }
@@ -2,13 +2,16 @@ package pw.aru.libs.andeclient.entities;
 
 import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
 import org.immutables.value.Value;
 import pw.aru.libs.andeclient.annotations.SimpleData;
+import pw.aru.libs.andeclient.util.AudioTrackUtil;
 
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Represents the Result of trying to get results for an identifier using the node endpoint
@@ -64,6 +67,28 @@ public interface AudioLoadResult {
         @Nonnull
         List<AudioTrack> tracks();
 
+        /**
+         * Returns the tracks of the playlist, encoded as sent by the node.
+         * @return a list of encoded audio tracks.
+         */
+        @CheckReturnValue
+        @Nonnull
+        @Value.Lazy
+        default List<String> encodedTracks() {
+            return tracks().stream().map(AudioTrackUtil::fromTrack).collect(Collectors.toUnmodifiableList());
+        }
+
+        /**
+         * Returns the info of the tracks of the playlist.
+         * @return a list of audio track infos.
+         */
+        @CheckReturnValue
+        @Nonnull
+        @Value.Lazy
+        default List<AudioTrackInfo> trackInfos() {
+            return tracks().stream().map(AudioTrack::getInfo).collect(Collectors.toUnmodifiableList());
+        }
+
         /**
          * Returns the selected track of the playlist, if any.
          * @return an audio track, if there was a selected track, or null.
@@ -0,0 +1,46 @@
+package pw.aru.libs.andeclient.entities;
+
+import org.immutables.value.Value;
+import pw.aru.libs.andeclient.annotations.SimpleData;
+
+/**
+ * A snapshot of the counters of one of AndeClient's caches.
+ */
+@Value.Immutable
+@SimpleData
+public interface CacheStats {
+    /**
+     * Returns the amount of lookups which found a cached value.
+     *
+     * @return the amount of hits.
+     */
+    long hits();
+
+    /**
+     * Returns the amount of lookups which didn't find a cached value.
+     *
+     * @return the amount of misses.
+     */
+    long misses();
+
+    /**
+     * Returns the amount of values removed to keep the cache within its bounds.
+     *
+     * @return the amount of evictions.
+     */
+    long evictions();
+
+    /**
+     * Returns the amount of values currently cached.
+     *
+     * @return the amount of entries.
+     */
+    int size();
+
+    /**
+     * Returns the total weight of the values currently cached.
+     *
+     * @return the weight of the entries.
+     */
+    long weight();
+}
@@ -0,0 +1,15 @@
+package pw.aru.libs.andeclient.entities;
+
+/**
+ * Represents what happens when a message is queued to a full queue.
+ */
+public enum OverflowPolicy {
+    /**
+     * The oldest message of the queue is discarded to make room for the new message.
+     */
+    DROP_OLDEST,
+    /**
+     * The new message is discarded.
+     */
+    DROP_NEWEST
+}
@@ -0,0 +1,23 @@
+package pw.aru.libs.andeclient.entities;
+
+import pw.aru.libs.andeclient.internal.DefaultReconnectPolicy;
+
+import javax.annotation.CheckReturnValue;
+import javax.annotation.Nonnegative;
+
+/**
+ * An implementation meant to tweak how long AndeClient waits before trying to reconnect to a node.
+ *
+ * @see DefaultReconnectPolicy
+ */
+public interface ReconnectPolicy {
+    /**
+     * Calculates how long to wait before the next attempt to reconnect to the node.
+     *
+     * @param attempt the number of the attempt, starting at 1 and reset once the node connects.
+     * @return the delay in milliseconds.
+     */
+    @CheckReturnValue
+    @Nonnegative
+    long delay(@Nonnegative int attempt);
+}
@@ -17,6 +17,14 @@ public interface EventManager {
      */
     EventSubscription<AndeClientEvent> on(EventConsumer<AndeClientEvent> consumer);
 
+    /**
+     * Returns the amount of subscriptions which weren't closed yet, including the ones of players and nodes.
+     * Subscriptions of a player or node are closed when it's destroyed.
+     *
+     * @return the amount of live subscriptions.
+     */
+    int subscriptionCount();
+
     /**
      * Add a consumer for the specified event type with the given handler callback.
      *
@@ -1,11 +1,14 @@
 package pw.aru.libs.andeclient.entities.client;
 
 import pw.aru.libs.andeclient.entities.AndesiteNode;
+import pw.aru.libs.andeclient.entities.AudioLoadResult;
+import pw.aru.libs.andeclient.entities.configurator.AndeClientConfigurator;
 import pw.aru.libs.andeclient.entities.configurator.internal.ActualAndesiteNodeConfigurator;
 
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
 import java.util.List;
+import java.util.concurrent.CompletionStage;
 
 /**
  * This interface is the part of the AndeClient responsible of managing the andesite nodes.
@@ -30,11 +33,39 @@ public interface NodeManager {
     List<AndesiteNode> nodes();
 
     /**
-     * Calculates the node with the less overhead currently.
+     * Calculates the node with the less overhead currently, based on the last stats received from each node.
+     * Nodes with stats older than {@link AndeClientConfigurator#statsMaxAge()} are only picked if no node has fresh stats.
+     * <p>
+     * This method never waits for the nodes to send new stats.
      *
      * @return the best node according to the load balancing.
      */
     @Nonnull
     @CheckReturnValue
     AndesiteNode bestNode();
+
+    /**
+     * Calculates the node with the less overhead, asking for new stats from the nodes which stats are missing or stale.
+     *
+     * @return a completion stage which completes with the best node according to the load balancing.
+     */
+    @Nonnull
+    @CheckReturnValue
+    CompletionStage<AndesiteNode> bestNodeAsync();
+
+    /**
+     * Loads tracks based on a given identifier, on the available node with the less overhead which has the identifier's source enabled.
+     * The source is guessed from the search prefix or the url of the identifier; other identifiers may be loaded by any node.
+     * <p>
+     * The node which loads the tracks doesn't need to be the node which will play them.
+     * <p>
+     * Loads which fail to reach their node are retried on another node, up to {@link AndeClientConfigurator#loadFailoverAttempts()} times.
+     * If {@link AndeClientConfigurator#hedgedLoads()} is enabled, slow loads are also sent to a second node.
+     *
+     * @param identifier the identifier to try to load tracks.
+     * @return a completion stage which completes with a load result, or fails if no available node can load the identifier.
+     */
+    @Nonnull
+    @CheckReturnValue
+    CompletionStage<AudioLoadResult> loadTracksAsync(@Nonnull String identifier);
 }
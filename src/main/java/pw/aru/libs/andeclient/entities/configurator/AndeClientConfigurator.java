@@ -3,6 +3,8 @@ package pw.aru.libs.andeclient.entities.configurator;
 import org.immutables.value.Value;
 import pw.aru.libs.andeclient.annotations.Configurator;
 import pw.aru.libs.andeclient.entities.AndeClient;
+import pw.aru.libs.andeclient.entities.AndesiteNode;
+import pw.aru.libs.andeclient.entities.AudioLoadResult;
 import pw.aru.libs.andeclient.entities.LoadBalancer;
 import pw.aru.libs.andeclient.internal.AndeClientImpl;
 import pw.aru.libs.andeclient.internal.DefaultLoadBalancer;
@@ -10,7 +12,10 @@ import pw.aru.libs.andeclient.internal.DefaultLoadBalancer;
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import java.net.http.HttpClient;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ScheduledExecutorService;
 
 /**
@@ -37,8 +42,190 @@ public abstract class AndeClientConfigurator {
         return Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors());
     }
 
+    /**
+     * Maximum age, in milliseconds, of the node stats used by the load balancing before they're considered stale.
+     *
+     * @return the value in milliseconds.
+     */
+    @Nonnegative
+    @Value.Default
+    public int statsMaxAge() {
+        return 30000;
+    }
+
+    /**
+     * Window, in milliseconds, in which rapid volume, seek, pause and filters payloads of a player are coalesced,
+     * so the node only receives the latest state. Every submitted payload still completes once the coalesced one is acknowledged.
+     * Set to 0 to send every payload right away.
+     *
+     * @return the value in milliseconds.
+     */
+    @Nonnegative
+    @Value.Default
+    public int controlsCoalescingWindow() {
+        return 0;
+    }
+
+    /**
+     * Delivers the events of each guild (and of each node, for node events) in the order they happened,
+     * while events of different guilds are still delivered in parallel.
+     *
+     * @return true if events should be delivered in order.
+     */
+    @Value.Default
+    public boolean orderedEvents() {
+        return false;
+    }
+
+    /**
+     * Executor which reads the responses of track loads as they're received, blocking while waiting for the node.
+     * Kept apart from the {@link #trackDecodeExecutor()}, so slow responses don't hold the threads which decode tracks.
+     * It's shut down along with the AndeClient.
+     *
+     * @return the executor.
+     */
+    @Value.Default
+    public ExecutorService loadReadExecutor() {
+        return Executors.newCachedThreadPool();
+    }
+
+    /**
+     * Executor used to decode the tracks of large playlists in parallel.
+     *
+     * @return the executor.
+     */
+    @Value.Default
+    public Executor trackDecodeExecutor() {
+        return ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Minimum amount of tracks of a loaded playlist for them to be decoded in parallel on the {@link #trackDecodeExecutor()}.
+     * Smaller playlists are decoded on the {@link #loadReadExecutor()} thread which reads the response.
+     *
+     * @return the amount of tracks.
+     */
+    @Nonnegative
+    @Value.Default
+    public int parallelDecodeThreshold() {
+        return 256;
+    }
+
+    /**
+     * Loads playlists without decoding their tracks, which are decoded one by one when accessed.
+     * Useful when only a few tracks of large playlists are used.
+     *
+     * @return true if playlists should be decoded lazily.
+     */
+    @Value.Default
+    public boolean lazyPlaylists() {
+        return false;
+    }
+
+    /**
+     * How long, in milliseconds, load results of {@link AndesiteNode#loadTracksAsync(String)} are cached by identifier.
+     * Cached results, and their tracks, are shared between callers. Set to 0 to disable the cache.
+     *
+     * @return the value in milliseconds.
+     */
+    @Nonnegative
+    @Value.Default
+    public int loadCacheTtl() {
+        return 0;
+    }
+
+    /**
+     * How long, in milliseconds, {@link AudioLoadResult#NO_MATCHES} results are cached when the load result cache is enabled.
+     * Set to 0 to not cache them. Failed loads are never cached.
+     *
+     * @return the value in milliseconds.
+     */
+    @Nonnegative
+    @Value.Default
+    public int loadCacheNoMatchesTtl() {
+        return 30000;
+    }
+
+    /**
+     * Maximum amount of load results kept by the load result cache.
+     *
+     * @return the amount of results.
+     */
+    @Nonnegative
+    @Value.Default
+    public int loadCacheMaxEntries() {
+        return 1000;
+    }
+
+    /**
+     * Maximum amount of tracks, summed across all cached playlists and tracks, kept by the load result cache.
+     *
+     * @return the amount of tracks.
+     */
+    @Nonnegative
+    @Value.Default
+    public long loadCacheMaxWeight() {
+        return 100000;
+    }
+
+    /**
+     * Sends a duplicate load to a second node when the node of a load routed by {@link AndeClient#loadTracksAsync(String)}
+     * takes longer than the {@link #loadHedgePercentile()} of its load latency, using the first result received.
+     *
+     * @return true if loads should be hedged.
+     */
+    @Value.Default
+    public boolean hedgedLoads() {
+        return false;
+    }
+
+    /**
+     * Percentile of the load latency of a node after which a hedged load is sent to a second node.
+     *
+     * @return the percentile, between 0 and 1.
+     */
+    @Value.Default
+    public double loadHedgePercentile() {
+        return 0.95;
+    }
+
+    /**
+     * Minimum time, in milliseconds, to wait for a node before sending a hedged load,
+     * which also applies to nodes which didn't load anything yet.
+     *
+     * @return the value in milliseconds.
+     */
+    @Nonnegative
+    @Value.Default
+    public int loadHedgeMinDelay() {
+        return 250;
+    }
+
+    /**
+     * Maximum amount of times a load routed by {@link AndeClient#loadTracksAsync(String)} is retried on another node
+     * after failing to reach its node. Set to 0 to never retry.
+     *
+     * @return the amount of retries.
+     */
+    @Nonnegative
+    @Value.Default
+    public int loadFailoverAttempts() {
+        return 1;
+    }
+
+    /**
+     * Validates the configuration. Modifiable configurators don't run checks by themselves, so it's also called by {@link #create()}.
+     */
+    @Value.Check
+    protected void check() {
+        final var loadHedgePercentile = loadHedgePercentile();
+        if (loadHedgePercentile < 0 || loadHedgePercentile > 1)
+            throw new IllegalArgumentException("loadHedgePercentile out of range (0 to 1)");
+    }
+
     @Nonnull
     public AndeClient create() {
+        check();
         return new AndeClientImpl(this);
     }
 }
@@ -4,8 +4,11 @@ import org.immutables.value.Value;
 import pw.aru.libs.andeclient.annotations.Configurator;
 import pw.aru.libs.andeclient.entities.AndeClient;
 import pw.aru.libs.andeclient.entities.AndesiteNode;
+import pw.aru.libs.andeclient.entities.OverflowPolicy;
+import pw.aru.libs.andeclient.entities.ReconnectPolicy;
 import pw.aru.libs.andeclient.entities.configurator.internal.ActualAndesiteNodeConfigurator;
 import pw.aru.libs.andeclient.internal.AndesiteNodeImpl;
+import pw.aru.libs.andeclient.internal.DefaultReconnectPolicy;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
@@ -48,6 +51,75 @@ public abstract class AndesiteNodeConfigurator implements AndesiteNode.ConnectIn
         return 2000;
     }
 
+    /**
+     * Maximum amount of messages waiting to be sent to the node.
+     * While the node is reconnecting, messages are kept on the queue and sent once the connection is resumed.
+     *
+     * @return the capacity of the outgoing queue.
+     */
+    @Nonnegative
+    @Value.Default
+    public int outgoingQueueCapacity() {
+        return 1024;
+    }
+
+    /**
+     * What happens when a message is sent while the outgoing queue is full.
+     *
+     * @return the overflow policy of the outgoing queue.
+     */
+    @Nonnull
+    @Value.Default
+    public OverflowPolicy outgoingOverflowPolicy() {
+        return OverflowPolicy.DROP_OLDEST;
+    }
+
+    /**
+     * How long, in milliseconds, the outgoing queue waits before flushing, so messages sent in bursts are written in a single flush.
+     * The default value of 0 flushes the queue right away.
+     *
+     * @return the value in milliseconds.
+     */
+    @Nonnegative
+    @Value.Default
+    public int outgoingFlushDelay() {
+        return 0;
+    }
+
+    /**
+     * How long, in milliseconds, a control payload waits for the node to acknowledge it before its completion stage fails.
+     * Set to 0 to wait until the node acknowledges it or is destroyed.
+     *
+     * @return the value in milliseconds.
+     */
+    @Nonnegative
+    @Value.Default
+    public int ackTimeout() {
+        return 10000;
+    }
+
+    /**
+     * Sends the correlation id of control payloads in the old string field, for nodes or proxies which still expect it.
+     * Acknowledgements are accepted in both formats regardless of this option.
+     *
+     * @return true if the old string field should be sent.
+     */
+    @Value.Default
+    public boolean legacyControlIds() {
+        return false;
+    }
+
+    /**
+     * How long to wait before each attempt to reconnect to the node.
+     *
+     * @return the reconnect policy.
+     */
+    @Nonnull
+    @Value.Default
+    public ReconnectPolicy reconnectPolicy() {
+        return DefaultReconnectPolicy.INSTANCE;
+    }
+
     @Nonnull
     public AndesiteNode create() {
         return new AndesiteNodeImpl(this);
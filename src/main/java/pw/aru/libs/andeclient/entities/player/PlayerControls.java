@@ -97,6 +97,24 @@ public interface PlayerControls {
     @CheckReturnValue
     Payload<Void> stop();
 
+    /**
+     * Creates a new Update payload, which applies several changes to the player at once. Call {@link Update#submit()} to send the payload to the player.
+     *
+     * @return a configurable Update payload.
+     */
+    @Nonnull
+    @CheckReturnValue
+    Update update();
+
+    /**
+     * Creates a new Batch of payloads. Call {@link Batch#submit()} to send all the payloads to the player, followed by a single validation.
+     *
+     * @return an empty Batch.
+     */
+    @Nonnull
+    @CheckReturnValue
+    Batch batch();
+
     /**
      * A payload which can be sent to the player.
      *
@@ -109,6 +127,25 @@ public interface PlayerControls {
          */
         @Nonnull
         CompletionStage<T> submit();
+
+        /**
+         * Sends the payload to the player, without a follow-up validation. Useful for high-rate controls which don't need to be acknowledged.
+         */
+        void send();
+    }
+
+    /**
+     * A batch of payloads which are sent in order and acknowledged by a single follow-up validation.
+     */
+    interface Batch extends Payload<Void> {
+        /**
+         * Adds a payload to the batch.
+         *
+         * @param payload a payload created by the controls of the same player.
+         * @return this batch.
+         */
+        @Nonnull
+        Batch add(@Nonnull Payload<?> payload);
     }
 
     interface Play extends Payload<Void> {
@@ -145,6 +182,36 @@ public interface PlayerControls {
         Play volume(@Nullable Integer volume);
     }
 
+    /**
+     * A payload which accumulates changes to the player and sends them together, acknowledged by a single follow-up validation.
+     * If a track is set, it's started with the given position, pause state and volume.
+     */
+    interface Update extends Payload<Void> {
+        @Nonnull
+        @CheckReturnValue
+        Update track(@Nonnull String trackString);
+
+        @Nonnull
+        @CheckReturnValue
+        Update track(@Nonnull AudioTrack track);
+
+        @Nonnull
+        @CheckReturnValue
+        Update pause(@Nullable Boolean isPaused);
+
+        @Nonnull
+        @CheckReturnValue
+        Update volume(@Nullable Integer volume);
+
+        @Nonnull
+        @CheckReturnValue
+        Update seek(@Nullable Long position);
+
+        @Nonnull
+        @CheckReturnValue
+        Update filters(PlayerFilter... filters);
+    }
+
     interface Mixer extends Payload<Void> {
         @Nonnull
         @CheckReturnValue
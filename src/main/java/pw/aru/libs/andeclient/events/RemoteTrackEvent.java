@@ -6,6 +6,20 @@ import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
 
 public interface RemoteTrackEvent extends AndePlayerEvent {
+    /**
+     * Returns the track of the event, encoded as sent by the node.
+     *
+     * @return the encoded track.
+     */
+    @Nonnull
+    @CheckReturnValue
+    String trackString();
+
+    /**
+     * Returns the track of the event, decoded on the first call.
+     *
+     * @return the decoded track.
+     */
     @Nonnull
     @CheckReturnValue
     AudioTrack track();
@@ -7,6 +7,7 @@ import pw.aru.libs.andeclient.entities.AndePlayer;
 import pw.aru.libs.andeclient.events.EventType;
 import pw.aru.libs.andeclient.events.RemoteTrackEvent;
 import pw.aru.libs.andeclient.exceptions.RemoteTrackException;
+import pw.aru.libs.andeclient.util.AudioTrackUtil;
 
 import javax.annotation.Nonnull;
 
@@ -19,7 +20,14 @@ public abstract class TrackExceptionEvent implements RemoteTrackEvent {
 
     @Override
     @Nonnull
-    public abstract AudioTrack track();
+    public abstract String trackString();
+
+    @Override
+    @Nonnull
+    @Value.Lazy
+    public AudioTrack track() {
+        return AudioTrackUtil.fromString(trackString());
+    }
 
     @Nonnull
     public abstract RemoteTrackException exception();
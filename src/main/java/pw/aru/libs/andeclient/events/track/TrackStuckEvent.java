@@ -6,6 +6,7 @@ import pw.aru.libs.andeclient.annotations.Event;
 import pw.aru.libs.andeclient.entities.AndePlayer;
 import pw.aru.libs.andeclient.events.EventType;
 import pw.aru.libs.andeclient.events.RemoteTrackEvent;
+import pw.aru.libs.andeclient.util.AudioTrackUtil;
 
 import javax.annotation.Nonnull;
 
@@ -18,7 +19,14 @@ public abstract class TrackStuckEvent implements RemoteTrackEvent {
 
     @Override
     @Nonnull
-    public abstract AudioTrack track();
+    public abstract String trackString();
+
+    @Override
+    @Nonnull
+    @Value.Lazy
+    public AudioTrack track() {
+        return AudioTrackUtil.fromString(trackString());
+    }
 
     public abstract long thresholdMs();
 
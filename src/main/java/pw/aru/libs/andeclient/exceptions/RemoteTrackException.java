@@ -4,13 +4,15 @@ import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import pw.aru.libs.andeclient.entities.AndeClient;
 import pw.aru.libs.andeclient.entities.AndePlayer;
 import pw.aru.libs.andeclient.entities.AndesiteNode;
+import pw.aru.libs.andeclient.util.AudioTrackUtil;
 
 /**
  * An Exception that came from a TrackExceptionEvent.
  */
 public class RemoteTrackException extends RuntimeException {
     private final AndeClient client;
-    private final AudioTrack track;
+    private final String trackString;
+    private volatile AudioTrack track;
     private final AndesiteNode node;
     private final AndePlayer player;
     private final String reason;
@@ -18,12 +20,22 @@ public class RemoteTrackException extends RuntimeException {
     public RemoteTrackException(final AndeClient client, final AndePlayer player, final AndesiteNode node, final AudioTrack track, final String reason) {
         super(reason);
         this.client = client;
+        this.trackString = null;
         this.track = track;
         this.node = node;
         this.player = player;
         this.reason = reason;
     }
 
+    public RemoteTrackException(final AndeClient client, final AndePlayer player, final AndesiteNode node, final String trackString, final String reason) {
+        super(reason);
+        this.client = client;
+        this.trackString = trackString;
+        this.node = node;
+        this.player = player;
+        this.reason = reason;
+    }
+
     /**
      * The AndeClient related to the exception.
      *
@@ -54,7 +66,12 @@ public class RemoteTrackException extends RuntimeException {
      * @return an audio track.
      */
     public AudioTrack track() {
-        return this.track;
+        var track = this.track;
+        if (track == null) {
+            track = AudioTrackUtil.fromString(trackString);
+            this.track = track;
+        }
+        return track;
     }
 
     /**
@@ -5,9 +5,8 @@ import pw.aru.libs.andeclient.entities.configurator.AndeClientConfigurator;
 import pw.aru.libs.andeclient.entities.configurator.internal.ActualAndePlayerConfigurator;
 import pw.aru.libs.andeclient.entities.configurator.internal.ActualAndesiteNodeConfigurator;
 import pw.aru.libs.andeclient.events.AndeClientEvent;
-import pw.aru.libs.eventpipes.EventPipes;
+import pw.aru.libs.andeclient.events.EventType;
 import pw.aru.libs.eventpipes.api.EventConsumer;
-import pw.aru.libs.eventpipes.api.EventPipe;
 import pw.aru.libs.eventpipes.api.EventSubscription;
 
 import javax.annotation.Nonnull;
@@ -16,14 +15,25 @@ import java.net.http.HttpClient;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 public class AndeClientImpl implements AndeClient {
     private final long userId;
     private final LoadBalancer loadBalancer;
+    private final long statsMaxAge;
+    final int controlsCoalescingWindow;
+    final ExecutorService loadReadExecutor;
+    final Executor trackDecodeExecutor;
+    final int parallelDecodeThreshold;
+    final boolean lazyPlaylists;
+    final LoadResultCache loadCache;
+    final boolean hedgedLoads;
+    final double loadHedgePercentile;
+    final int loadHedgeMinDelay;
+    final int loadFailoverAttempts;
     final ScheduledExecutorService executor;
     final HttpClient httpClient;
-    final EventPipe<AndeClientEvent> events;
+    final EventDispatcher events;
     final List<AndesiteNodeImpl> nodes = new CopyOnWriteArrayList<>();
     final Map<Long, AndePlayerImpl> players = new ConcurrentHashMap<>();
 
@@ -32,7 +42,20 @@ public class AndeClientImpl implements AndeClient {
         this.httpClient = configurator.httpClient();
         this.loadBalancer = configurator.loadBalancer();
         this.executor = configurator.executor();
-        this.events = EventPipes.newAsyncPipe(this.executor);
+        this.statsMaxAge = TimeUnit.MILLISECONDS.toNanos(configurator.statsMaxAge());
+        this.controlsCoalescingWindow = configurator.controlsCoalescingWindow();
+        this.loadReadExecutor = configurator.loadReadExecutor();
+        this.trackDecodeExecutor = configurator.trackDecodeExecutor();
+        this.parallelDecodeThreshold = configurator.parallelDecodeThreshold();
+        this.lazyPlaylists = configurator.lazyPlaylists();
+        this.loadCache = configurator.loadCacheTtl() > 0 ? new LoadResultCache(
+            configurator.loadCacheTtl(), configurator.loadCacheNoMatchesTtl(), configurator.loadCacheMaxEntries(), configurator.loadCacheMaxWeight()
+        ) : null;
+        this.hedgedLoads = configurator.hedgedLoads();
+        this.loadHedgePercentile = configurator.loadHedgePercentile();
+        this.loadHedgeMinDelay = configurator.loadHedgeMinDelay();
+        this.loadFailoverAttempts = configurator.loadFailoverAttempts();
+        this.events = new EventDispatcher(this.executor, configurator.orderedEvents());
     }
 
     //region class AndeClientImpl implements NodeManager
@@ -59,26 +82,93 @@ public class AndeClientImpl implements AndeClient {
             return nodes.get(0);
         }
 
-        final var stats = nodes.stream()
-            .filter(node -> node.state() == EntityState.AVAILABLE)
-            .map(AndesiteNode::stats)
-            .map(CompletionStage::toCompletableFuture)
-            .map(CompletableFuture::join)
-            .collect(Collectors.toUnmodifiableList());
+        final var bestNode = selectNode(node -> true);
 
-        int bestPenalty = Integer.MAX_VALUE;
-        AndesiteNode bestNode = null;
+        if (bestNode == null) {
+            throw new IllegalStateException("no nodes!");
+        }
 
-        for (var stat : stats) {
-            var penalty = loadBalancer.totalPenalty(stat);
-            if (penalty < bestPenalty) {
-                bestPenalty = penalty;
-                bestNode = stat.node();
+        return bestNode;
+    }
+
+    @Nonnull
+    @Override
+    public CompletionStage<AndesiteNode> bestNodeAsync() {
+        if (nodes.isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("no nodes!"));
+        }
+        if (nodes.size() == 1) {
+            return CompletableFuture.completedFuture(nodes.get(0));
+        }
+
+        final var refreshes = nodes.stream()
+            .filter(node -> node.state() == EntityState.AVAILABLE && !node.hasFreshStats(statsMaxAge))
+            .map(node -> node.stats().toCompletableFuture().completeOnTimeout(null, node.connectInfo().timeout(), TimeUnit.MILLISECONDS))
+            .toArray(CompletableFuture[]::new);
+
+        return CompletableFuture.allOf(refreshes).thenApply(ignored -> {
+            final var bestNode = selectNode(node -> true);
+
+            if (bestNode == null) {
+                throw new IllegalStateException("no nodes!");
             }
+
+            return bestNode;
+        });
+    }
+
+    @Nonnull
+    @Override
+    public CompletionStage<AudioLoadResult> loadTracksAsync(@Nonnull String identifier) {
+        final var source = TrackSources.sourceOf(identifier);
+        final Predicate<AndesiteNodeImpl> filter = it -> source == null || it.hasSource(source);
+        final var node = selectNode(filter);
+
+        if (node == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                source == null ? "no nodes!" : "no available nodes with the " + source + " source enabled!"
+            ));
         }
 
-        if (bestNode == null) {
-            throw new IllegalStateException("no nodes!");
+        if (!hedgedLoads && loadFailoverAttempts == 0) {
+            return node.loadTracksAsync(identifier);
+        }
+        return new HedgedLoad(this, identifier, filter).start(node);
+    }
+
+    /**
+     * Picks the available node with the lowest penalty which matches the filter, only using the stats already received from the nodes.
+     * Nodes with fresh stats are preferred over nodes with stale stats, which are preferred over nodes without any stats.
+     * Nodes without any stats are compared by the amount of players connected to them.
+     */
+    @Nullable
+    AndesiteNodeImpl selectNode(Predicate<AndesiteNodeImpl> filter) {
+        AndesiteNodeImpl bestNode = null;
+        int bestRank = Integer.MAX_VALUE;
+        long bestPenalty = Long.MAX_VALUE;
+
+        for (var node : nodes) {
+            if (node.state() != EntityState.AVAILABLE || !filter.test(node)) {
+                continue;
+            }
+
+            final var stats = node.lastStats;
+            final int rank;
+            final long penalty;
+
+            if (stats == null) {
+                rank = 2;
+                penalty = node.children.size();
+            } else {
+                rank = node.hasFreshStats(statsMaxAge) ? 0 : 1;
+                penalty = loadBalancer.totalPenalty(stats);
+            }
+
+            if (rank < bestRank || (rank == bestRank && penalty < bestPenalty)) {
+                bestRank = rank;
+                bestPenalty = penalty;
+                bestNode = node;
+            }
         }
 
         return bestNode;
@@ -128,7 +218,17 @@ public class AndeClientImpl implements AndeClient {
 
     @Override
     public EventSubscription<AndeClientEvent> on(EventConsumer<AndeClientEvent> consumer) {
-        return events.subscribe(consumer);
+        return events.subscribe(null, consumer);
+    }
+
+    @Override
+    public <T extends AndeClientEvent> EventSubscription<AndeClientEvent> on(EventType<T> type, EventConsumer<T> consumer) {
+        return events.subscribe(null, type, consumer);
+    }
+
+    @Override
+    public int subscriptionCount() {
+        return events.subscriptionCount();
     }
 
     //endregion
@@ -140,11 +240,18 @@ public class AndeClientImpl implements AndeClient {
         return userId;
     }
 
+    @Nullable
+    @Override
+    public CacheStats loadCacheStats() {
+        return loadCache == null ? null : loadCache.stats();
+    }
+
     @Override
     public void shutdown() {
         nodes.forEach(AndesiteNodeImpl::destroy);
         events.close();
         executor.shutdown();
+        loadReadExecutor.shutdown();
     }
 
     @Override
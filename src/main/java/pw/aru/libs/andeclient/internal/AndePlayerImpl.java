@@ -11,11 +11,13 @@ import pw.aru.libs.andeclient.entities.player.PlayerControls;
 import pw.aru.libs.andeclient.entities.player.PlayerFilter;
 import pw.aru.libs.andeclient.events.AndeClientEvent;
 import pw.aru.libs.andeclient.events.AndePlayerEvent;
+import pw.aru.libs.andeclient.events.EventType;
 import pw.aru.libs.andeclient.events.player.internal.PostedNewPlayerEvent;
 import pw.aru.libs.andeclient.events.player.internal.PostedPlayerRemovedEvent;
 import pw.aru.libs.andeclient.events.player.internal.PostedPlayerUpdateEvent;
 import pw.aru.libs.andeclient.events.player.update.internal.PostedPlayerFilterUpdateEvent;
 import pw.aru.libs.andeclient.events.player.update.internal.PostedPlayerPauseUpdateEvent;
+import pw.aru.libs.andeclient.events.track.TrackStartEvent;
 import pw.aru.libs.andeclient.util.AndesiteUtil;
 import pw.aru.libs.eventpipes.api.EventConsumer;
 import pw.aru.libs.eventpipes.api.EventSubscription;
@@ -28,12 +30,12 @@ import java.util.Set;
 
 public class AndePlayerImpl implements AndePlayer {
 
-    private final AndeClientImpl client;
+    final AndeClientImpl client;
     final AndesiteNodeImpl node;
     private final long guildId;
 
-    AudioTrack playingTrack;
-    private PlayerControlsImpl playerControls;
+    volatile TrackStartEvent playingTrackEvent;
+    private final PlayerControlsImpl playerControls;
     private long time;
     private long position;
     private int volume;
@@ -46,6 +48,7 @@ public class AndePlayerImpl implements AndePlayer {
         this.client = (AndeClientImpl) configurator.client();
         this.node = (AndesiteNodeImpl) configurator.andesiteNode();
         this.guildId = configurator.guildId();
+        this.playerControls = new PlayerControlsImpl(this);
 
         if (this.client.players.containsKey(guildId)) {
             this.state = EntityState.DESTROYED;
@@ -87,9 +90,6 @@ public class AndePlayerImpl implements AndePlayer {
         if (state == EntityState.DESTROYED) {
             throw new IllegalStateException("Destroyed AndePlayer, please create a new one with AndeClient#newPlayer.");
         }
-        if (playerControls == null) {
-            playerControls = new PlayerControlsImpl(this);
-        }
         return playerControls;
     }
 
@@ -106,7 +106,15 @@ public class AndePlayerImpl implements AndePlayer {
     @Nullable
     @Override
     public AudioTrack playingTrack() {
-        return playingTrack;
+        final var event = playingTrackEvent;
+        return event == null ? null : event.track();
+    }
+
+    @Nullable
+    @Override
+    public String playingTrackString() {
+        final var event = playingTrackEvent;
+        return event == null ? null : event.trackString();
     }
 
     @Override
@@ -164,10 +172,11 @@ public class AndePlayerImpl implements AndePlayer {
         );
 
         state = EntityState.DESTROYED;
-        playerControls = null;
+        playerControls.discardCoalesced();
         node.children.remove(guildId);
         client.players.remove(guildId);
         client.events.publish(PostedPlayerRemovedEvent.of(this));
+        client.events.removeOwner(this);
     }
 
     void update(JsonObject json) {
@@ -232,13 +241,22 @@ public class AndePlayerImpl implements AndePlayer {
 
     @Override
     public EventSubscription<AndeClientEvent> on(EventConsumer<AndePlayerEvent> consumer) {
-        return client.on(event -> {
-            if (state != EntityState.DESTROYED && event instanceof AndePlayerEvent && ((AndePlayerEvent) event).player() == this) {
+        return client.events.subscribe(this, event -> {
+            if (state != EntityState.DESTROYED) {
                 consumer.onEvent((AndePlayerEvent) event);
             }
         });
     }
 
+    @Override
+    public <T extends AndePlayerEvent> EventSubscription<AndeClientEvent> on(EventType<T> type, EventConsumer<T> consumer) {
+        return client.events.subscribe(this, type, event -> {
+            if (state != EntityState.DESTROYED) {
+                consumer.onEvent(event);
+            }
+        });
+    }
+
     @Override
     public String toString() {
         return "AndePlayer(guildId=" + guildId + ", node=" + node + ")";
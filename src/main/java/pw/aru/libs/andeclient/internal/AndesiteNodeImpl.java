@@ -1,8 +1,8 @@
 package pw.aru.libs.andeclient.internal;
 
 import com.grack.nanojson.JsonObject;
-import com.grack.nanojson.JsonParser;
 import com.grack.nanojson.JsonParserException;
+import com.grack.nanojson.JsonWriter;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrackEndReason;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,8 +10,11 @@ import pw.aru.libs.andeclient.entities.AndeClient;
 import pw.aru.libs.andeclient.entities.AndesiteNode;
 import pw.aru.libs.andeclient.entities.AudioLoadResult;
 import pw.aru.libs.andeclient.entities.EntityState;
+import pw.aru.libs.andeclient.entities.OverflowPolicy;
+import pw.aru.libs.andeclient.entities.ReconnectPolicy;
 import pw.aru.libs.andeclient.entities.configurator.AndesiteNodeConfigurator;
 import pw.aru.libs.andeclient.entities.internal.ActualConnectInfo;
+import pw.aru.libs.andeclient.entities.internal.ActualMetrics;
 import pw.aru.libs.andeclient.events.AndeClientEvent;
 import pw.aru.libs.andeclient.events.AndesiteNodeEvent;
 import pw.aru.libs.andeclient.events.EventType;
@@ -27,14 +30,12 @@ import pw.aru.libs.andeclient.events.track.internal.PostedTrackStartEvent;
 import pw.aru.libs.andeclient.events.track.internal.PostedTrackStuckEvent;
 import pw.aru.libs.andeclient.exceptions.RemoteTrackException;
 import pw.aru.libs.andeclient.util.AndesiteUtil;
-import pw.aru.libs.andeclient.util.AudioTrackUtil;
-import pw.aru.libs.eventpipes.EventPipes;
 import pw.aru.libs.eventpipes.api.EventConsumer;
-import pw.aru.libs.eventpipes.api.EventPipe;
 import pw.aru.libs.eventpipes.api.EventSubscription;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpRequest;
@@ -45,24 +46,37 @@ import java.util.concurrent.*;
 
 public class AndesiteNodeImpl implements AndesiteNode {
     private static final Logger logger = LoggerFactory.getLogger(AndesiteNodeImpl.class);
+    static final String CONTROLS_ID = "__andeclient_controls_id";
+    static final String LEGACY_CONTROLS_ID = "__andeclient_controls_uuid";
 
     // node objects
     final AndeClientImpl client;
-    final EventPipe<JsonObject> pongRelay = EventPipes.newAsyncPipe();
+    final PendingAcks acks;
+    final boolean legacyControlIds;
     final Map<Long, AndePlayerImpl> children = new ConcurrentHashMap<>();
+    final LatencyRecorder websocketLatency = new LatencyRecorder();
+    final LatencyRecorder payloadLatency = new LatencyRecorder();
+    final LatencyRecorder loadLatency = new LatencyRecorder();
+    private final SingleFlight<String, AudioLoadResult> loads = new SingleFlight<>();
     // creation info
     private final String host;
     private final int timeout;
-    private NodeWebSocket ws;
-    private EntityState state = EntityState.CONFIGURING;
+    private volatile NodeWebSocket ws;
+    private volatile EntityState state = EntityState.CONFIGURING;
     private final ConnectInfo connectInfo;
-    private Info info;
-    private Stats lastStats;
+    private volatile Info info;
+    volatile Stats lastStats;
+    private volatile long lastStatsTime;
     private final int port;
     private final String password;
     private final String relativePath;
+    private final OverflowPolicy outgoingOverflowPolicy;
+    private final OutgoingQueue outgoing;
+    private final ReconnectPolicy reconnectPolicy;
     private String connectionId;
     private ScheduledFuture<?> statsCacheTask;
+    private ScheduledFuture<?> reconnectTask;
+    private int reconnectAttempts;
 
     public AndesiteNodeImpl(AndesiteNodeConfigurator configurator) {
         this.client = (AndeClientImpl) configurator.client();
@@ -72,10 +86,16 @@ public class AndesiteNodeImpl implements AndesiteNode {
         this.password = connectInfo.password();
         this.relativePath = connectInfo.relativePath();
         this.timeout = connectInfo.timeout();
+        this.outgoingOverflowPolicy = configurator.outgoingOverflowPolicy();
+        this.outgoing = new OutgoingQueue(client.executor, configurator.outgoingQueueCapacity(), outgoingOverflowPolicy, configurator.outgoingFlushDelay());
+        this.reconnectPolicy = configurator.reconnectPolicy();
+        this.acks = new PendingAcks(client.executor, configurator.ackTimeout());
+        this.legacyControlIds = configurator.legacyControlIds();
 
         this.client.nodes.add(this);
         this.client.events.publish(PostedNewNodeEvent.of(this));
-        this.ws = new NodeWebSocket(this, client.httpClient, nodeUri(), Long.toString(client.userId()), password, null, timeout);
+        this.ws = new NodeWebSocket(this, client.httpClient, nodeUri(), Long.toString(client.userId()), password, null, timeout, outgoing);
+        this.ws.connect();
     }
 
     @Nonnull
@@ -107,12 +127,52 @@ public class AndesiteNodeImpl implements AndesiteNode {
         var future = new CompletableFuture<Stats>();
         var subscription = on(EventType.NODE_STATS_EVENT, e -> future.complete(e.stats()));
         future.thenRun(subscription::close);
+        if (state == EntityState.AVAILABLE) {
+            cacheStats();
+        }
         return future;
     }
 
+    @Nullable
+    @Override
+    public Stats lastStats() {
+        return lastStats;
+    }
+
+    @Nonnull
+    @Override
+    public Metrics metrics() {
+        return ActualMetrics.builder()
+            .outgoingQueueSize(outgoing.size())
+            .droppedOutgoing(outgoing.dropped())
+            .pendingAcks(acks.size())
+            .coalescedLoads(loads.coalesced())
+            .websocketLatency(websocketLatency.snapshot())
+            .payloadLatency(payloadLatency.snapshot())
+            .loadLatency(loadLatency.snapshot())
+            .build();
+    }
+
     @Nonnull
     @Override
     public CompletionStage<AudioLoadResult> loadTracksAsync(String identifier) {
+        final var cache = client.loadCache;
+        if (cache == null) {
+            return loads.load(identifier, this::requestTracks);
+        }
+
+        final var cached = cache.get(identifier);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return loads.load(identifier, key -> requestTracks(key).thenApply(result -> {
+            cache.put(key, result);
+            return result;
+        }));
+    }
+
+    private CompletionStage<AudioLoadResult> requestTracks(String identifier) {
         final var uri = URI.create(String.format("http://%s:%d/%s?identifier=%s",
             host, port, relativePath != null ? relativePath + "/loadtracks" : "loadtracks",
             URLEncoder.encode(identifier, StandardCharsets.UTF_8)
@@ -125,28 +185,41 @@ public class AndesiteNodeImpl implements AndesiteNode {
             builder.header("Authorization", password);
         }
 
-        return client.httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofString())
-            .thenApply(it -> {
-                try {
-                    return AndesiteUtil.audioLoadResult(JsonParser.object().from(it.body()));
-                } catch (JsonParserException e) {
+        final long start = System.nanoTime();
+        // the body is parsed as it arrives, on its own executor since reading it blocks
+        return client.httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofInputStream())
+            .thenComposeAsync(it -> {
+                try (var body = it.body()) {
+                    return AndesiteUtil.audioLoadResult(body, client.trackDecodeExecutor, client.parallelDecodeThreshold, client.lazyPlaylists);
+                } catch (JsonParserException | IOException e) {
                     throw new IllegalStateException(e);
                 }
+            }, client.loadReadExecutor)
+            .whenComplete((result, throwable) -> {
+                if (throwable == null) {
+                    loadLatency.record(System.nanoTime() - start);
+                }
             });
     }
 
     @Override
     public EventSubscription<AndeClientEvent> on(EventConsumer<AndesiteNodeEvent> consumer) {
-        return client.on(event -> {
-            if (event instanceof AndesiteNodeEvent && ((AndesiteNodeEvent) event).node() == this) {
-                consumer.onEvent((AndesiteNodeEvent) event);
-            }
-        });
+        return client.events.subscribe(this, event -> consumer.onEvent((AndesiteNodeEvent) event));
+    }
+
+    @Override
+    public <T extends AndesiteNodeEvent> EventSubscription<AndeClientEvent> on(EventType<T> type, EventConsumer<T> consumer) {
+        return client.events.subscribe(this, type, consumer);
     }
 
     void handleOpen() {
         state = EntityState.AVAILABLE;
-        statsCacheTask = client.executor.scheduleAtFixedRate(this::cacheStats, 10, 10, TimeUnit.SECONDS);
+        synchronized (this) {
+            reconnectAttempts = 0;
+            if (statsCacheTask == null) {
+                statsCacheTask = client.executor.scheduleAtFixedRate(this::cacheStats, 10, 10, TimeUnit.SECONDS);
+            }
+        }
 
         //setup reconnect
         handleOutgoing(
@@ -159,8 +232,8 @@ public class AndesiteNodeImpl implements AndesiteNode {
         client.events.publish(PostedNodeConnectedEvent.of(this));
     }
 
-    void handleTimeout() {
-        if (state == EntityState.DESTROYED) {
+    void handleTimeout(NodeWebSocket source) {
+        if (state == EntityState.DESTROYED || !isCurrent(source)) {
             return;
         }
 
@@ -168,11 +241,11 @@ public class AndesiteNodeImpl implements AndesiteNode {
 
         state = EntityState.CONFIGURING;
         client.events.publish(PostedNodeDisconnectedEvent.of(this, Reason.TIMED_OUT));
-        reconnect();
+        reconnect(source);
     }
 
-    void handleClose() {
-        if (state == EntityState.DESTROYED) {
+    void handleClose(NodeWebSocket source) {
+        if (state == EntityState.DESTROYED || !isCurrent(source)) {
             return;
         }
 
@@ -180,11 +253,11 @@ public class AndesiteNodeImpl implements AndesiteNode {
 
         state = EntityState.CONFIGURING;
         client.events.publish(PostedNodeDisconnectedEvent.of(this, Reason.CLOSED_BY_SERVER));
-        reconnect();
+        reconnect(source);
     }
 
-    void handleError() {
-        if (state == EntityState.DESTROYED) {
+    void handleError(NodeWebSocket source) {
+        if (state == EntityState.DESTROYED || !isCurrent(source)) {
             return;
         }
 
@@ -192,7 +265,53 @@ public class AndesiteNodeImpl implements AndesiteNode {
 
         state = EntityState.CONFIGURING;
         client.events.publish(PostedNodeDisconnectedEvent.of(this, Reason.WEBSOCKET_ERROR));
-        reconnect();
+        reconnect(source);
+    }
+
+    void handleConnectFailure(NodeWebSocket source) {
+        if (state == EntityState.DESTROYED || !isCurrent(source)) {
+            return;
+        }
+
+        logger.warn("Couldn't connect to node, reconnecting...");
+        reconnect(source);
+    }
+
+    /**
+     * Handles a frame received from the node.
+     *
+     * @param op the op of the frame, already read by the websocket, or null if it couldn't be read without parsing.
+     */
+    void handleIncoming(@Nullable String op, CharSequence frame) throws JsonParserException {
+        // control acknowledgements and player updates are the most common frames, so they're handled without parsing the whole frame
+        if ("pong".equals(op)) {
+            logger.trace("received pong from andesite, completing its acknowledgement");
+            final long id = controlsId(frame);
+            if (id == 0 || !acks.complete(id)) {
+                logger.trace("no payload waiting for the pong, ignoring it");
+            }
+            return;
+        }
+
+        if ("player-update".equals(op)) {
+            logger.trace("received player update, sending to player | frame is {}", frame);
+            final var guildId = JsonFrames.string(frame, "guildId");
+            if (guildId != null) {
+                final var player = client.players.get(Long.parseLong(guildId));
+                if (player == null) {
+                    logger.trace("player not on AndeClient, dropping update");
+                    return;
+                }
+
+                final var state = JsonFrames.parseObject(frame, "state");
+                if (state != null) {
+                    player.update(state);
+                    return;
+                }
+            }
+        }
+
+        handleIncoming(JsonFrames.parse(frame));
     }
 
     void handleIncoming(JsonObject json) {
@@ -219,15 +338,13 @@ public class AndesiteNodeImpl implements AndesiteNode {
                                 return;
                             }
 
-                            final var track = AudioTrackUtil.fromString(json.getString("track"));
-                            player.playingTrack = track;
+                            final var event = PostedTrackStartEvent.builder()
+                                .player(player)
+                                .trackString(json.getString("track"))
+                                .build();
+                            player.playingTrackEvent = event;
 
-                            client.events.publish(
-                                PostedTrackStartEvent.builder()
-                                    .player(player)
-                                    .track(track)
-                                    .build()
-                            );
+                            client.events.publish(event);
                             return;
                         }
                         case "TrackEndEvent": {
@@ -238,13 +355,12 @@ public class AndesiteNodeImpl implements AndesiteNode {
                                 return;
                             }
 
-                            final var track = AudioTrackUtil.fromString(json.getString("track"));
-                            player.playingTrack = null;
+                            player.playingTrackEvent = null;
 
                             client.events.publish(
                                 PostedTrackEndEvent.builder()
                                     .player(player)
-                                    .track(track)
+                                    .trackString(json.getString("track"))
                                     .reason(AudioTrackEndReason.valueOf(json.getString("reason")))
                                     .build()
                             );
@@ -258,12 +374,12 @@ public class AndesiteNodeImpl implements AndesiteNode {
                                 return;
                             }
 
-                            final var track = AudioTrackUtil.fromString(json.getString("track"));
+                            final var track = json.getString("track");
 
                             client.events.publish(
                                 PostedTrackExceptionEvent.builder()
                                     .player(player)
-                                    .track(track)
+                                    .trackString(track)
                                     .exception(new RemoteTrackException(client, player, this, track, json.getString("error")))
                                     .build()
                             );
@@ -277,12 +393,10 @@ public class AndesiteNodeImpl implements AndesiteNode {
                                 return;
                             }
 
-                            final var track = AudioTrackUtil.fromString(json.getString("track"));
-
                             client.events.publish(
                                 PostedTrackStuckEvent.builder()
                                     .player(player)
-                                    .track(track)
+                                    .trackString(json.getString("track"))
                                     .thresholdMs(json.getInt("thresholdMs"))
                                     .build()
                             );
@@ -295,7 +409,7 @@ public class AndesiteNodeImpl implements AndesiteNode {
                                 logger.trace("player not on AndeClient, dropping event");
                                 return;
                             }
-                            player.playingTrack = null;
+                            player.playingTrackEvent = null;
 
                             client.events.publish(
                                 PostedWebSocketClosedEvent.builder()
@@ -324,17 +438,20 @@ public class AndesiteNodeImpl implements AndesiteNode {
                     return;
                 }
                 case "pong": {
-                    logger.trace("received pong from andesite, publishing it to the relay");
-                    json.remove("op");
-                    pongRelay.publish(json);
+                    logger.trace("received pong from andesite, completing its acknowledgement");
+                    final long id = controlsId(json);
+                    if (id == 0 || !acks.complete(id)) {
+                        logger.trace("no payload waiting for the pong, ignoring it");
+                    }
                     return;
                 }
                 case "stats": {
                     logger.trace("received stats from andesite, publishing it");
 
                     var stats = AndesiteUtil.nodeStats(this, json.getObject("stats"));
-                    client.events.publish(PostedNodeStatsEvent.of(stats));
+                    lastStatsTime = System.nanoTime();
                     lastStats = stats;
+                    client.events.publish(PostedNodeStatsEvent.of(stats));
                     return;
                 }
                 default: {
@@ -351,7 +468,54 @@ public class AndesiteNodeImpl implements AndesiteNode {
             return;
         }
         logger.trace("sending outgoing json to andesite | json is {}", json);
-        ws.send(json);
+        if (!outgoing.offer(JsonWriter.string(json))) {
+            logger.debug("outgoing queue is full, dropped a message | policy is {}", outgoingOverflowPolicy);
+        }
+    }
+
+    /**
+     * Reads the correlation id of a pong frame without parsing it, in either the numeric or the old string format.
+     *
+     * @return the id, or 0 if the pong doesn't have a valid one.
+     */
+    private static long controlsId(@Nonnull final CharSequence frame) {
+        final long id = JsonFrames.longValue(frame, CONTROLS_ID, 0);
+        if (id != 0) {
+            return id;
+        }
+
+        final var legacyId = JsonFrames.string(frame, LEGACY_CONTROLS_ID);
+        if (legacyId != null) {
+            try {
+                return Long.parseLong(legacyId);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Reads the correlation id of a pong, in either the numeric or the old string format.
+     *
+     * @return the id, or 0 if the pong doesn't have a valid one.
+     */
+    private static long controlsId(@Nonnull final JsonObject json) {
+        if (json.isNumber(CONTROLS_ID)) {
+            return json.getLong(CONTROLS_ID);
+        }
+
+        final var legacyId = json.getString(LEGACY_CONTROLS_ID);
+        if (legacyId != null) {
+            try {
+                return Long.parseLong(legacyId);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        return 0;
     }
 
     @Nullable
@@ -370,15 +534,33 @@ public class AndesiteNodeImpl implements AndesiteNode {
         }
 
         logger.trace("received destroy call, destroying websocket and cleaning up...");
+        state = EntityState.DESTROYED;
         ws.close();
         exitCleanup();
     }
 
+    /**
+     * Checks if the node has a source enabled. Nodes which didn't send their metadata yet are assumed to have it.
+     */
+    boolean hasSource(String source) {
+        final var info = this.info;
+        return info == null || info.enabledSources().contains(source);
+    }
+
+    boolean hasFreshStats(long maxAgeNanos) {
+        return lastStats != null && System.nanoTime() - lastStatsTime <= maxAgeNanos;
+    }
+
     private URI nodeUri() {
         return URI.create(String.format("ws://%s:%d/%s", host, port, relativePath != null ? relativePath + "/websocket" : "websocket"));
     }
 
     private void cacheStats() {
+        // requests made while reconnecting would pile up on the outgoing queue
+        if (state != EntityState.AVAILABLE) {
+            return;
+        }
+
         handleOutgoing(
             JsonObject.builder()
                 .value("op", "get-stats")
@@ -386,13 +568,53 @@ public class AndesiteNodeImpl implements AndesiteNode {
         );
     }
 
-    private void reconnect() {
+    /**
+     * Drops the current websocket and schedules a new connection, waiting longer on each failed attempt.
+     * Messages sent meanwhile are kept on the outgoing queue and sent once the new websocket opens.
+     */
+    private synchronized void reconnect(NodeWebSocket source) {
+        if (!isCurrent(source)) {
+            return;
+        }
         ws.destroy();
-        ws = new NodeWebSocket(this, client.httpClient, nodeUri(), Long.toString(client.userId()), password, connectionId, timeout);
+
+        if (reconnectTask != null && !reconnectTask.isDone()) {
+            return;
+        }
+
+        final var delay = reconnectPolicy.delay(++reconnectAttempts);
+        logger.debug("reconnecting to node in {}ms | attempt #{}", delay, reconnectAttempts);
+        reconnectTask = client.executor.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
     }
 
-    private void exitCleanup() {
-        statsCacheTask.cancel(true);
+    private synchronized void connect() {
+        // a failure reported while connecting must be able to schedule the next attempt
+        reconnectTask = null;
+        if (state == EntityState.DESTROYED) {
+            return;
+        }
+
+        ws = new NodeWebSocket(this, client.httpClient, nodeUri(), Long.toString(client.userId()), password, connectionId, timeout, outgoing);
+        ws.connect();
+    }
+
+    /**
+     * Checks if callbacks of a websocket should be handled. Websockets are assigned before they start connecting,
+     * so callbacks of websockets which were already replaced are ignored.
+     */
+    private boolean isCurrent(NodeWebSocket source) {
+        return ws == source;
+    }
+
+    private synchronized void exitCleanup() {
+        if (statsCacheTask != null) {
+            statsCacheTask.cancel(true);
+        }
+        if (reconnectTask != null) {
+            reconnectTask.cancel(false);
+        }
+        acks.close(new IllegalStateException("AndesiteNode was destroyed before acknowledging the payload."));
+        client.events.removeOwner(this);
     }
 
     @Override
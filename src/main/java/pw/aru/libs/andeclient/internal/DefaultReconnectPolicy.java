@@ -0,0 +1,41 @@
+package pw.aru.libs.andeclient.internal;
+
+import pw.aru.libs.andeclient.entities.ReconnectPolicy;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The default reconnect policy used by AndeClient.
+ * The delay doubles on every attempt up to a maximum, and half of it is randomized so clients don't reconnect all at once.
+ */
+public class DefaultReconnectPolicy implements ReconnectPolicy {
+    public static final ReconnectPolicy INSTANCE = new DefaultReconnectPolicy(1000, 60000);
+
+    private final long baseDelay;
+    private final long maxDelay;
+
+    /**
+     * Creates a reconnect policy with the given delays.
+     *
+     * @param baseDelay the delay of the first attempt, in milliseconds.
+     * @param maxDelay  the maximum delay, in milliseconds.
+     */
+    public DefaultReconnectPolicy(long baseDelay, long maxDelay) {
+        if (baseDelay <= 0 || maxDelay < baseDelay) {
+            throw new IllegalArgumentException("base delay must be positive and max delay must be greater or equal to it");
+        }
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+    }
+
+    @Override
+    public long delay(int attempt) {
+        long delay = baseDelay;
+        for (int i = 1; i < attempt && delay < maxDelay; i++) {
+            delay = delay > maxDelay / 2 ? maxDelay : delay * 2;
+        }
+
+        final long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+}
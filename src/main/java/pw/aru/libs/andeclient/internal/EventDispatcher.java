@@ -0,0 +1,225 @@
+package pw.aru.libs.andeclient.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pw.aru.libs.andeclient.events.AndeClientEvent;
+import pw.aru.libs.andeclient.events.AndePlayerEvent;
+import pw.aru.libs.andeclient.events.AndesiteNodeEvent;
+import pw.aru.libs.andeclient.events.EventType;
+import pw.aru.libs.eventpipes.EventPipes;
+import pw.aru.libs.eventpipes.api.EventConsumer;
+import pw.aru.libs.eventpipes.api.EventPipe;
+import pw.aru.libs.eventpipes.api.EventSubscription;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Dispatches events to subscribers indexed by event type and by owning player or node,
+ * so publishing an event only reaches the pipes which match it.
+ * Each event is delivered by a single task on the executor. In ordered mode, events of the same guild
+ * (or of the same node, for node events) are delivered in the order they were published.
+ * <p>
+ * Pipes are removed once their last subscription is closed, and all the pipes of a player or node are closed once it's destroyed.
+ */
+class EventDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(EventDispatcher.class);
+
+    private static final Object GLOBAL = new Object();
+
+    private final Executor executor;
+    private final SerialExecutor serialExecutor;
+    private final Map<Key, Entry> pipes = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    EventDispatcher(Executor executor, boolean ordered) {
+        this.executor = executor;
+        this.serialExecutor = ordered ? new SerialExecutor(executor) : null;
+    }
+
+    /**
+     * Subscribes to all the events of an owner.
+     *
+     * @param owner the player or node which the events must belong to, or null for all events.
+     */
+    EventSubscription<AndeClientEvent> subscribe(Object owner, EventConsumer<AndeClientEvent> consumer) {
+        return subscribe(new Key(owner, null), consumer);
+    }
+
+    /**
+     * Subscribes to the events of an owner with the given type.
+     *
+     * @param owner the player or node which the events must belong to, or null for all events.
+     */
+    @SuppressWarnings("unchecked")
+    <T extends AndeClientEvent> EventSubscription<AndeClientEvent> subscribe(Object owner, EventType<T> type, EventConsumer<T> consumer) {
+        return subscribe(new Key(owner, type), event -> consumer.onEvent((T) event));
+    }
+
+    void publish(AndeClientEvent event) {
+        if (closed || pipes.isEmpty()) {
+            return;
+        }
+        if (serialExecutor != null) {
+            serialExecutor.execute(orderingKey(event), () -> dispatch(event));
+        } else {
+            executor.execute(() -> dispatch(event));
+        }
+    }
+
+    /**
+     * Closes all the subscriptions of a destroyed player or node.
+     */
+    void removeOwner(Object owner) {
+        pipes.entrySet().removeIf(entry -> {
+            if (entry.getKey().owner != owner) {
+                return false;
+            }
+            entry.getValue().pipe.close();
+            return true;
+        });
+    }
+
+    /**
+     * Counts the subscriptions which weren't closed yet.
+     */
+    int subscriptionCount() {
+        int count = 0;
+        for (var entry : pipes.values()) {
+            count += entry.subscriptions.size();
+        }
+        return count;
+    }
+
+    void close() {
+        closed = true;
+        pipes.values().forEach(entry -> entry.pipe.close());
+        pipes.clear();
+    }
+
+    private EventSubscription<AndeClientEvent> subscribe(Key key, EventConsumer<AndeClientEvent> consumer) {
+        if (closed) {
+            throw new IllegalStateException("AndeClient is already shut down.");
+        }
+
+        final TrackedSubscription[] subscription = {null};
+        pipes.compute(key, (ignored, entry) -> {
+            if (entry == null) {
+                entry = new Entry();
+            }
+            subscription[0] = new TrackedSubscription(key, entry, entry.pipe.subscribe(consumer));
+            entry.subscriptions.add(subscription[0]);
+            return entry;
+        });
+
+        return subscription[0];
+    }
+
+    private void untrack(Key key, Entry entry, TrackedSubscription subscription) {
+        pipes.computeIfPresent(key, (ignored, current) -> {
+            if (current != entry || !entry.subscriptions.remove(subscription) || !entry.subscriptions.isEmpty()) {
+                return current;
+            }
+            entry.pipe.close();
+            return null;
+        });
+    }
+
+    private static Object orderingKey(AndeClientEvent event) {
+        if (event instanceof AndePlayerEvent) {
+            return ((AndePlayerEvent) event).guildId();
+        }
+        if (event instanceof AndesiteNodeEvent) {
+            return ((AndesiteNodeEvent) event).node();
+        }
+        return GLOBAL;
+    }
+
+    private void dispatch(AndeClientEvent event) {
+        final var type = event.type();
+        dispatch(null, type, event);
+
+        if (event instanceof AndePlayerEvent) {
+            final var player = ((AndePlayerEvent) event).player();
+            dispatch(player, type, event);
+            dispatch(player.connectedNode(), type, event);
+        } else if (event instanceof AndesiteNodeEvent) {
+            dispatch(((AndesiteNodeEvent) event).node(), type, event);
+        }
+    }
+
+    private void dispatch(Object owner, EventType<?> type, AndeClientEvent event) {
+        publish(pipes.get(new Key(owner, null)), event);
+        publish(pipes.get(new Key(owner, type)), event);
+    }
+
+    private static void publish(Entry entry, AndeClientEvent event) {
+        if (entry == null) {
+            return;
+        }
+        try {
+            entry.pipe.publish(event).exceptionally(throwable -> {
+                logger.error("Error while handling event {}", event, throwable);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            logger.error("Error while handling event {}", event, e);
+        }
+    }
+
+    private static class Entry {
+        final EventPipe<AndeClientEvent> pipe = EventPipes.newPipe();
+        final Set<TrackedSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * A subscription which removes itself from the dispatcher once closed.
+     */
+    private class TrackedSubscription implements EventSubscription<AndeClientEvent> {
+        private final Key key;
+        private final Entry entry;
+        private final EventSubscription<AndeClientEvent> subscription;
+
+        TrackedSubscription(Key key, Entry entry, EventSubscription<AndeClientEvent> subscription) {
+            this.key = key;
+            this.entry = entry;
+            this.subscription = subscription;
+        }
+
+        @Override
+        public EventPipe<AndeClientEvent> pipe() {
+            return subscription.pipe();
+        }
+
+        @Override
+        public void close() {
+            untrack(key, entry, this);
+            subscription.close();
+        }
+    }
+
+    private static class Key {
+        private final Object owner;
+        private final EventType<?> type;
+
+        Key(Object owner, EventType<?> type) {
+            this.owner = owner;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            final var key = (Key) o;
+            return owner == key.owner && type == key.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(owner) + System.identityHashCode(type);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package pw.aru.libs.andeclient.internal;
+
+import pw.aru.libs.andeclient.entities.AudioLoadResult;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * A track load routed by the client, which may be sent to more than one node.
+ * Loads which fail to reach their node are retried on another node, and if hedging is enabled,
+ * a duplicate load is sent to another node once the first one takes longer than usual. The first successful result wins.
+ */
+class HedgedLoad {
+    private final AndeClientImpl client;
+    private final String identifier;
+    private final Predicate<AndesiteNodeImpl> filter;
+    private final CompletableFuture<AudioLoadResult> result = new CompletableFuture<>();
+    private final Set<AndesiteNodeImpl> tried = ConcurrentHashMap.newKeySet();
+
+    // guarded by this
+    private int running;
+    private int failoversLeft;
+
+    HedgedLoad(AndeClientImpl client, String identifier, Predicate<AndesiteNodeImpl> filter) {
+        this.client = client;
+        this.identifier = identifier;
+        this.filter = filter.and(node -> !tried.contains(node));
+        this.failoversLeft = client.loadFailoverAttempts;
+    }
+
+    CompletionStage<AudioLoadResult> start(AndesiteNodeImpl node) {
+        if (client.hedgedLoads) {
+            final long delay = Math.max(
+                TimeUnit.MILLISECONDS.toNanos(client.loadHedgeMinDelay), node.loadLatency.percentile(client.loadHedgePercentile)
+            );
+            final var hedge = client.executor.schedule(this::hedge, delay, TimeUnit.NANOSECONDS);
+            result.whenComplete((ignored, throwable) -> hedge.cancel(false));
+        }
+
+        send(node);
+        return result.minimalCompletionStage();
+    }
+
+    private void hedge() {
+        if (result.isDone()) {
+            return;
+        }
+
+        final var node = client.selectNode(filter);
+        if (node != null) {
+            send(node);
+        }
+    }
+
+    private void send(AndesiteNodeImpl node) {
+        synchronized (this) {
+            tried.add(node);
+            running++;
+        }
+
+        try {
+            node.loadTracksAsync(identifier).whenComplete((value, throwable) -> handle(value, throwable));
+        } catch (RuntimeException e) {
+            handle(null, e);
+        }
+    }
+
+    private void handle(AudioLoadResult value, Throwable throwable) {
+        if (throwable == null) {
+            result.complete(value);
+            return;
+        }
+
+        AndesiteNodeImpl failover = null;
+        boolean failed;
+        synchronized (this) {
+            running--;
+            if (failoversLeft > 0 && isConnectionFailure(throwable) && !result.isDone()) {
+                failover = client.selectNode(filter);
+                if (failover != null) {
+                    failoversLeft--;
+                }
+            }
+            failed = failover == null && running == 0;
+        }
+
+        if (failover != null) {
+            send(failover);
+        } else if (failed) {
+            result.completeExceptionally(throwable);
+        }
+    }
+
+    /**
+     * Checks if the load failed to reach its node, including failures while reading the body,
+     * which reach here wrapped in the parsing and completion exceptions.
+     */
+    private static boolean isConnectionFailure(Throwable throwable) {
+        for (var cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
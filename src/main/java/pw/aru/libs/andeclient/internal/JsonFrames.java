@@ -0,0 +1,331 @@
+package pw.aru.libs.andeclient.internal;
+
+import com.grack.nanojson.JsonObject;
+import com.grack.nanojson.JsonParser;
+import com.grack.nanojson.JsonParserException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * Utilities to inspect json frames received from the websocket without copying or fully parsing them.
+ */
+final class JsonFrames {
+    private JsonFrames() {}
+
+    /**
+     * Wraps the fragments of a frame as a single char sequence, without copying them.
+     */
+    @Nonnull
+    static CharSequence join(@Nonnull List<CharSequence> fragments) {
+        if (fragments.size() == 1) {
+            return fragments.get(0);
+        }
+        return new Fragments(fragments.toArray(new CharSequence[0]));
+    }
+
+    /**
+     * Parses the whole frame as a json object.
+     */
+    @Nonnull
+    static JsonObject parse(@Nonnull CharSequence frame) throws JsonParserException {
+        if (frame instanceof String) {
+            return JsonParser.object().from((String) frame);
+        }
+        return JsonParser.object().from(new FrameReader(frame, 0, frame.length()));
+    }
+
+    /**
+     * Parses only the object value of a top-level key of the frame.
+     *
+     * @return the parsed object, or null if the key doesn't exist or its value isn't an object.
+     */
+    @Nullable
+    static JsonObject parseObject(@Nonnull CharSequence frame, @Nonnull String key) throws JsonParserException {
+        final int start = valueIndex(frame, key);
+        if (start < 0 || frame.charAt(start) != '{') {
+            return null;
+        }
+        return JsonParser.object().from(new FrameReader(frame, start, valueEnd(frame, start)));
+    }
+
+    /**
+     * Reads the string value of a top-level key of the frame.
+     *
+     * @return the string, or null if the key doesn't exist, the value isn't a string or the value has escape sequences.
+     */
+    @Nullable
+    static String string(@Nonnull CharSequence frame, @Nonnull String key) {
+        final int start = valueIndex(frame, key);
+        if (start < 0 || frame.charAt(start) != '"') {
+            return null;
+        }
+        final int end = stringEnd(frame, start);
+        for (int i = start + 1; i < end; i++) {
+            if (frame.charAt(i) == '\\') {
+                return null;
+            }
+        }
+        return frame.subSequence(start + 1, end).toString();
+    }
+
+    /**
+     * Reads the integer value of a top-level key of the frame.
+     *
+     * @return the value, or the fallback if the key doesn't exist or the value isn't an integer which fits a long.
+     */
+    static long longValue(@Nonnull CharSequence frame, @Nonnull String key, long fallback) {
+        final int start = valueIndex(frame, key);
+        if (start < 0) {
+            return fallback;
+        }
+
+        final int length = frame.length();
+        int i = start;
+        final boolean negative = frame.charAt(i) == '-';
+        if (negative) {
+            i++;
+        }
+
+        final int digits = i;
+        long value = 0;
+        for (; i < length; i++) {
+            final char c = frame.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            if (value > (Long.MAX_VALUE - (c - '0')) / 10) {
+                return fallback;
+            }
+            value = value * 10 + (c - '0');
+        }
+
+        if (i == digits || (i < length && (frame.charAt(i) == '.' || frame.charAt(i) == 'e' || frame.charAt(i) == 'E'))) {
+            return fallback;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Checks if the frame has a top-level key.
+     */
+    static boolean has(@Nonnull CharSequence frame, @Nonnull String key) {
+        return valueIndex(frame, key) >= 0;
+    }
+
+    /**
+     * Finds the index of the first character of the value of a top-level key, or -1 if the key wasn't found.
+     */
+    static int valueIndex(@Nonnull CharSequence frame, @Nonnull String key) {
+        final int length = frame.length();
+        int depth = 0;
+        boolean expectingKey = false;
+
+        for (int i = 0; i < length; i++) {
+            final char c = frame.charAt(i);
+            switch (c) {
+                case '"': {
+                    final int end = stringEnd(frame, i);
+                    if (depth == 1 && expectingKey) {
+                        final boolean matches = regionEquals(frame, i + 1, end, key);
+                        int j = skipWhitespace(frame, end + 1);
+                        if (j >= length || frame.charAt(j) != ':') {
+                            return -1;
+                        }
+                        j = skipWhitespace(frame, j + 1);
+                        if (matches) {
+                            return j < length ? j : -1;
+                        }
+                        expectingKey = false;
+                        i = j - 1;
+                    } else {
+                        i = end;
+                    }
+                    break;
+                }
+                case '{': {
+                    depth++;
+                    expectingKey = depth == 1;
+                    break;
+                }
+                case '[': {
+                    depth++;
+                    break;
+                }
+                case '}':
+                case ']': {
+                    depth--;
+                    break;
+                }
+                case ',': {
+                    if (depth == 1) {
+                        expectingKey = true;
+                    }
+                    break;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Finds the index right after the end of an object or array value.
+     */
+    private static int valueEnd(CharSequence frame, int start) {
+        final int length = frame.length();
+        int depth = 0;
+
+        for (int i = start; i < length; i++) {
+            final char c = frame.charAt(i);
+            if (c == '"') {
+                i = stringEnd(frame, i);
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                if (--depth == 0) {
+                    return i + 1;
+                }
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Finds the index of the closing quote of the string starting at the given index.
+     */
+    private static int stringEnd(CharSequence frame, int start) {
+        final int length = frame.length();
+        for (int i = start + 1; i < length; i++) {
+            final char c = frame.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private static int skipWhitespace(CharSequence frame, int start) {
+        final int length = frame.length();
+        int i = start;
+        while (i < length && Character.isWhitespace(frame.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean regionEquals(CharSequence frame, int start, int end, String key) {
+        if (end - start != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (frame.charAt(start + i) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A char sequence backed by the fragments of a frame.
+     */
+    private static class Fragments implements CharSequence {
+        private final CharSequence[] fragments;
+        private final int[] offsets;
+        private final int length;
+        private int last;
+
+        Fragments(CharSequence[] fragments) {
+            this.fragments = fragments;
+            this.offsets = new int[fragments.length];
+            int offset = 0;
+            for (int i = 0; i < fragments.length; i++) {
+                offsets[i] = offset;
+                offset += fragments[i].length();
+            }
+            this.length = offset;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(index);
+            }
+
+            // reads are mostly sequential, so start looking from the last fragment used
+            int i = last;
+            if (index < offsets[i]) {
+                i = 0;
+            }
+            while (i + 1 < offsets.length && index >= offsets[i + 1]) {
+                i++;
+            }
+            last = i;
+            return fragments[i].charAt(index - offsets[i]);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            final var builder = new StringBuilder(end - start);
+            for (int i = start; i < end; i++) {
+                builder.append(charAt(i));
+            }
+            return builder;
+        }
+
+        @Nonnull
+        @Override
+        public String toString() {
+            return subSequence(0, length).toString();
+        }
+    }
+
+    /**
+     * A reader over a range of a char sequence.
+     */
+    private static class FrameReader extends Reader {
+        private final CharSequence frame;
+        private final int end;
+        private int position;
+
+        FrameReader(CharSequence frame, int start, int end) {
+            this.frame = frame;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() {
+            return position < end ? frame.charAt(position++) : -1;
+        }
+
+        @Override
+        public int read(@Nonnull char[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= end) {
+                return -1;
+            }
+
+            final int count = Math.min(length, end - position);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = frame.charAt(position++);
+            }
+            return count;
+        }
+
+        @Override
+        public void close() {}
+    }
+}
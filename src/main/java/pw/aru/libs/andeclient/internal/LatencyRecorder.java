@@ -0,0 +1,77 @@
+package pw.aru.libs.andeclient.internal;
+
+import pw.aru.libs.andeclient.entities.AndesiteNode;
+import pw.aru.libs.andeclient.entities.internal.ActualLatency;
+
+/**
+ * Records round-trip times into a log-linear histogram, along with an exponentially weighted moving average.
+ * Each power of two is split in 8 buckets, so percentiles are precise within 12.5%.
+ */
+class LatencyRecorder {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final double EWMA_WEIGHT = 0.125;
+
+    // guarded by this
+    private final long[] buckets = new long[64 * SUB_BUCKETS];
+    private long samples;
+    private long last;
+    private double average;
+    private long max;
+
+    synchronized void record(long nanos) {
+        final long value = Math.max(0, nanos);
+        buckets[bucketOf(value)]++;
+        average = samples == 0 ? value : average + (value - average) * EWMA_WEIGHT;
+        samples++;
+        last = value;
+        max = Math.max(max, value);
+    }
+
+    synchronized long percentile(double percentile) {
+        if (samples == 0) {
+            return 0;
+        }
+
+        final long target = Math.max(1, (long) Math.ceil(percentile * samples));
+        long count = 0;
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            count += buckets[bucket];
+            if (count >= target) {
+                return Math.min(max, upperBoundOf(bucket));
+            }
+        }
+        return max;
+    }
+
+    synchronized AndesiteNode.Latency snapshot() {
+        return ActualLatency.builder()
+            .samples(samples)
+            .last(last)
+            .average(average)
+            .p50(percentile(0.5))
+            .p99(percentile(0.99))
+            .max(max)
+            .build();
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + mantissa;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        final int shift = bucket / SUB_BUCKETS - 1;
+        final long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
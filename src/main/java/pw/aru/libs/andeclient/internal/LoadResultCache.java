@@ -0,0 +1,116 @@
+package pw.aru.libs.andeclient.internal;
+
+import pw.aru.libs.andeclient.entities.AudioLoadResult;
+import pw.aru.libs.andeclient.entities.CacheStats;
+import pw.aru.libs.andeclient.entities.internal.ActualCacheStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A least recently used cache of load results, keyed by identifier, whose entries expire after a time to live.
+ * Bounded both by the amount of entries and by their weight, which is the amount of tracks of each result.
+ * {@link AudioLoadResult#NO_MATCHES} is cached with its own time to live, while failed and unknown results are never cached.
+ */
+class LoadResultCache {
+    private final long ttl;
+    private final long noMatchesTtl;
+    private final int maxEntries;
+    private final long maxWeight;
+
+    // guarded by this
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    LoadResultCache(int ttl, int noMatchesTtl, int maxEntries, long maxWeight) {
+        this.ttl = TimeUnit.MILLISECONDS.toNanos(ttl);
+        this.noMatchesTtl = TimeUnit.MILLISECONDS.toNanos(noMatchesTtl);
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Returns the cached result, or null if it isn't cached or already expired.
+     */
+    synchronized AudioLoadResult get(String identifier) {
+        final var entry = entries.get(identifier);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+
+        if (System.nanoTime() - entry.expiresAt > 0) {
+            entries.remove(identifier);
+            weight -= entry.weight;
+            evictions++;
+            misses++;
+            return null;
+        }
+
+        hits++;
+        return entry.result;
+    }
+
+    synchronized void put(String identifier, AudioLoadResult result) {
+        final long entryTtl;
+        if (result == AudioLoadResult.NO_MATCHES) {
+            entryTtl = noMatchesTtl;
+        } else if (result instanceof AudioLoadResult.Track || result instanceof AudioLoadResult.Playlist) {
+            entryTtl = ttl;
+        } else {
+            return;
+        }
+
+        final long entryWeight = weightOf(result);
+        if (entryTtl <= 0 || entryWeight > maxWeight) {
+            return;
+        }
+
+        final var previous = entries.put(identifier, new Entry(result, entryWeight, System.nanoTime() + entryTtl));
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+        weight += entryWeight;
+
+        final var iterator = entries.values().iterator();
+        while (entries.size() > maxEntries || weight > maxWeight) {
+            final var eldest = iterator.next();
+            iterator.remove();
+            weight -= eldest.weight;
+            evictions++;
+        }
+    }
+
+    synchronized CacheStats stats() {
+        return ActualCacheStats.builder()
+            .hits(hits)
+            .misses(misses)
+            .evictions(evictions)
+            .size(entries.size())
+            .weight(weight)
+            .build();
+    }
+
+    private static long weightOf(AudioLoadResult result) {
+        if (result instanceof AudioLoadResult.Playlist) {
+            return Math.max(1, ((AudioLoadResult.Playlist) result).tracks().size());
+        }
+        return 1;
+    }
+
+    private static class Entry {
+        final AudioLoadResult result;
+        final long weight;
+        final long expiresAt;
+
+        Entry(AudioLoadResult result, long weight, long expiresAt) {
+            this.result = result;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package pw.aru.libs.andeclient.internal;
 
-import com.grack.nanojson.JsonObject;
-import com.grack.nanojson.JsonParser;
 import com.grack.nanojson.JsonWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,31 +12,39 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.WebSocket;
 import java.nio.ByteBuffer;
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.*;
 
 class NodeWebSocket implements WebSocket.Listener, Closeable {
     private static final Logger logger = LoggerFactory.getLogger(NodeWebSocket.class);
     private final AndesiteNodeImpl node;
     private final URI uri;
-    private CompletableFuture<WebSocket> websocket;
-    private final StringBuilder wsBuffer = new StringBuilder();
+    private final CompletableFuture<WebSocket> websocket;
+    private final WebSocket.Builder builder;
+    private final OutgoingQueue outgoing;
+    private final List<CharSequence> fragments = new ArrayList<>();
+    private CompletableFuture<Void> fragmentsReleased;
     // pinging stuff
     private final int pingTimeout;
     private final ByteBuffer systemPingBuffer = ByteBuffer.allocate(8);
-    private boolean closed = false;
-    private ScheduledFuture<?> systemPingTask;
-    private CompletableFuture<Void> systemPingFuture;
-    private ScheduledFuture<?> payloadPingTask;
-    private CompletableFuture<Void> payloadPingFuture;
+    private volatile boolean closed = false;
+    private ScheduledFuture<?> heartbeatTask;
+    // heartbeat state, guarded by this
+    private HeartbeatState heartbeatState = HeartbeatState.IDLE;
+    private int heartbeatRound;
+    private boolean awaitingSystemPong;
+    private boolean awaitingPayloadPong;
+    private long payloadPingSentAt;
 
     NodeWebSocket(AndesiteNodeImpl node, HttpClient client, URI uri,
                   String userId, @Nullable String authentication, @Nullable String connectionId,
-                  int timeout) {
+                  int timeout, OutgoingQueue outgoing) {
         this.node = node;
         this.uri = uri;
         this.pingTimeout = timeout;
         this.websocket = new CompletableFuture<>();
+        this.outgoing = outgoing;
 
         var builder = client.newWebSocketBuilder().header("User-Id", userId);
         if (authentication != null) {
@@ -47,12 +53,34 @@ class NodeWebSocket implements WebSocket.Listener, Closeable {
         if (connectionId != null) {
             builder.header("Andesite-Connection-Id", connectionId);
         }
-        builder.buildAsync(uri, this);
+        this.builder = builder;
+    }
+
+    /**
+     * Starts connecting to the node. Kept apart from the constructor, so the node knows this websocket
+     * before any of its callbacks runs.
+     */
+    void connect() {
+        builder.buildAsync(uri, this).whenComplete((ws, throwable) -> {
+            if (throwable != null && !closed) {
+                try (MDCCloseable ignored = MDC.putCloseable("websocket_url", uri.toString())) {
+                    logger.error("Couldn't connect to the node.", throwable);
+                }
+                closed = true;
+                node.handleConnectFailure(this);
+            }
+        });
     }
 
     @Override
     public void onOpen(WebSocket ws) {
+        if (closed) {
+            ws.abort();
+            return;
+        }
+
         websocket.complete(ws);
+        outgoing.attach(ws);
         ws.request(1);
 
         try (MDCCloseable ignored = MDC.putCloseable("websocket_url", uri.toString())) {
@@ -61,59 +89,111 @@ class NodeWebSocket implements WebSocket.Listener, Closeable {
 
         node.handleOpen();
 
-        systemPingTask = node.client.executor.scheduleWithFixedDelay(this::doSystemPing, 10, 10, TimeUnit.SECONDS);
-        payloadPingTask = node.client.executor.scheduleWithFixedDelay(this::doPayloadPing, 10, 10, TimeUnit.SECONDS);
+        heartbeatTask = node.client.executor.scheduleWithFixedDelay(this::heartbeat, 10, 10, TimeUnit.SECONDS);
     }
 
-    private void doSystemPing() {
-        try {
-            WebSocket ws = websocket.get(pingTimeout, TimeUnit.MILLISECONDS);
-            systemPingBuffer.asLongBuffer().position(0).put(System.currentTimeMillis()).flip();
-            systemPingFuture = new CompletableFuture<>();
-            ws.sendPing(systemPingBuffer);
-
-            systemPingFuture.get(pingTimeout, TimeUnit.MILLISECONDS);
-        } catch (TimeoutException e) {
-            systemPingTask.cancel(false);
-            payloadPingTask.cancel(false);
-            node.handleTimeout();
-        } catch (InterruptedException | ExecutionException e) {
-            try (MDCCloseable ignored = MDC.putCloseable("websocket_url", uri.toString())) {
-                logger.error("Error while pinging websocket.", e);
+    /**
+     * Sends both the websocket ping and the payload ping, and schedules a check for their pongs.
+     * Nothing here waits: the pongs are tracked by {@link #onPong} and {@link #onText}.
+     */
+    private void heartbeat() {
+        final WebSocket ws = websocket.getNow(null);
+        final int round;
+        synchronized (this) {
+            if (ws == null || heartbeatState != HeartbeatState.IDLE) {
+                return;
+            }
+
+            heartbeatState = HeartbeatState.AWAITING_PONGS;
+            awaitingSystemPong = true;
+            awaitingPayloadPong = true;
+            payloadPingSentAt = System.nanoTime();
+            round = ++heartbeatRound;
+        }
+
+        systemPingBuffer.clear().putLong(System.nanoTime()).flip();
+        ws.sendPing(systemPingBuffer).whenComplete((sent, throwable) -> {
+            if (throwable != null) {
+                try (MDCCloseable ignored = MDC.putCloseable("websocket_url", uri.toString())) {
+                    logger.error("Error while pinging websocket.", throwable);
+                }
+                if (stopHeartbeat()) {
+                    node.handleError(this);
+                }
+            }
+        });
+
+        outgoing.offerPriority(
+            JsonWriter.string()
+                .object()
+                .value("op", "ping")
+                .value("__nodewebsocket_payloadping", true)
+                .end()
+                .done()
+        );
+
+        node.client.executor.schedule(() -> checkPongs(round), pingTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    private void checkPongs(int round) {
+        synchronized (this) {
+            if (heartbeatState != HeartbeatState.AWAITING_PONGS || heartbeatRound != round) {
+                return;
             }
-            systemPingTask.cancel(false);
-            payloadPingTask.cancel(false);
-            node.handleError();
+        }
+
+        if (stopHeartbeat()) {
+            node.handleTimeout(this);
         }
     }
 
-    private void doPayloadPing() {
-        try {
-            WebSocket ws = websocket.get(pingTimeout, TimeUnit.MILLISECONDS);
-            payloadPingFuture = new CompletableFuture<>();
-            ws.sendText(
-                JsonWriter.string()
-                    .object()
-                    .value("op", "ping")
-                    .value("__nodewebsocket_payloadping", true)
-                    .end()
-                    .done(),
-                true
-            );
-
-            payloadPingFuture.get(pingTimeout, TimeUnit.MILLISECONDS);
-        } catch (TimeoutException e) {
-            systemPingTask.cancel(false);
-            payloadPingTask.cancel(false);
-            node.handleTimeout();
-        } catch (InterruptedException | ExecutionException e) {
-            try (MDCCloseable ignored = MDC.putCloseable("websocket_url", uri.toString())) {
-                logger.error("Error while pinging node.", e);
+    private void handleSystemPong(ByteBuffer message) {
+        final long now = System.nanoTime();
+        synchronized (this) {
+            if (!awaitingSystemPong) {
+                return;
+            }
+            if (message.remaining() == Long.BYTES) {
+                node.websocketLatency.record(now - message.getLong(message.position()));
+            }
+            awaitingSystemPong = false;
+            if (heartbeatState == HeartbeatState.AWAITING_PONGS && !awaitingPayloadPong) {
+                heartbeatState = HeartbeatState.IDLE;
+            }
+        }
+    }
+
+    private void handlePayloadPong() {
+        final long now = System.nanoTime();
+        synchronized (this) {
+            if (!awaitingPayloadPong) {
+                return;
+            }
+            node.payloadLatency.record(now - payloadPingSentAt);
+            awaitingPayloadPong = false;
+            if (heartbeatState == HeartbeatState.AWAITING_PONGS && !awaitingSystemPong) {
+                heartbeatState = HeartbeatState.IDLE;
+            }
+        }
+    }
+
+    /**
+     * Stops the heartbeat for good.
+     *
+     * @return true if the heartbeat was running.
+     */
+    private boolean stopHeartbeat() {
+        synchronized (this) {
+            if (heartbeatState == HeartbeatState.STOPPED) {
+                return false;
             }
-            systemPingTask.cancel(false);
-            payloadPingTask.cancel(false);
-            node.handleError();
+            heartbeatState = HeartbeatState.STOPPED;
+        }
+
+        if (heartbeatTask != null) {
+            heartbeatTask.cancel(false);
         }
+        return true;
     }
 
     @Override
@@ -121,38 +201,56 @@ class NodeWebSocket implements WebSocket.Listener, Closeable {
         if (!closed) {
             logger.error("Websocket closed unexplicably with code {} and reason '{}'.", statusCode, reason);
             closed = true;
-            node.handleClose();
+            stopHeartbeat();
+            node.handleClose(this);
         }
         return null;
     }
 
     @Override
     public CompletionStage<?> onPong(WebSocket ws, ByteBuffer message) {
-        systemPingFuture.complete(null);
+        handleSystemPong(message);
         ws.request(1);
         return null;
     }
 
     @Override
     public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
-        wsBuffer.append(data);
+        if (!last) {
+            // fragments are kept until the whole frame arrives, the stage tells the websocket when they can be reclaimed
+            fragments.add(data);
+            if (fragmentsReleased == null) {
+                fragmentsReleased = new CompletableFuture<>();
+            }
+            ws.request(1);
+            return fragmentsReleased;
+        }
 
-        if (last) {
-            try {
-                var json = JsonParser.object().from(wsBuffer.toString());
+        final CharSequence frame;
+        if (fragments.isEmpty()) {
+            frame = data;
+        } else {
+            fragments.add(data);
+            frame = JsonFrames.join(fragments);
+        }
 
-                if (Objects.equals(json.getString("op"), "pong") && json.getBoolean("__nodewebsocket_payloadping")) {
-                    payloadPingFuture.complete(null);
-                } else {
-                    node.handleIncoming(json);
-                }
-            } catch (Exception e) {
-                try (MDCCloseable ignored = MDC.putCloseable("websocket_url", uri.toString())) {
-                    logger.error("Received payload that it's not valid json.", e);
-                    logger.trace("Websocket Buffer: {}", wsBuffer.toString());
-                }
-            } finally {
-                wsBuffer.setLength(0);
+        try {
+            final var op = JsonFrames.string(frame, "op");
+            if ("pong".equals(op) && JsonFrames.has(frame, "__nodewebsocket_payloadping")) {
+                handlePayloadPong();
+            } else {
+                node.handleIncoming(op, frame);
+            }
+        } catch (Exception e) {
+            try (MDCCloseable ignored = MDC.putCloseable("websocket_url", uri.toString())) {
+                logger.error("Received payload that it's not valid json.", e);
+                logger.trace("Websocket Frame: {}", frame);
+            }
+        } finally {
+            fragments.clear();
+            if (fragmentsReleased != null) {
+                fragmentsReleased.complete(null);
+                fragmentsReleased = null;
             }
         }
 
@@ -162,35 +260,47 @@ class NodeWebSocket implements WebSocket.Listener, Closeable {
 
     @Override
     public void onError(WebSocket ws, Throwable t) {
+        if (closed) {
+            return;
+        }
+        closed = true;
         try (MDCCloseable ignored = MDC.putCloseable("websocket_url", uri.toString())) {
             logger.error("Websocket errored", t);
         }
-        node.handleError();
-    }
-
-    void send(JsonObject json) {
-        websocket = websocket.thenComposeAsync(ws -> ws.sendText(JsonWriter.string(json), true));
+        stopHeartbeat();
+        node.handleError(this);
     }
 
     @Override
     public void close() {
-        websocket.thenComposeAsync(ws -> ws.sendClose(1000, "Requested by client."));
+        outgoing.close(1000, "Requested by client.");
         closed = true;
         closeResources();
     }
 
     void destroy() {
         closed = true;
+        outgoing.detach();
         websocket.thenAcceptAsync(WebSocket::abort);
         closeResources();
     }
 
     private void closeResources() {
-        if (systemPingTask != null) {
-            systemPingTask.cancel(true);
-        }
-        if (payloadPingTask != null) {
-            payloadPingTask.cancel(true);
-        }
+        stopHeartbeat();
+    }
+
+    private enum HeartbeatState {
+        /**
+         * Waiting for the next heartbeat.
+         */
+        IDLE,
+        /**
+         * Pings were sent, waiting for both pongs.
+         */
+        AWAITING_PONGS,
+        /**
+         * The websocket was closed or timed out, no more pings will be sent.
+         */
+        STOPPED
     }
 }
@@ -0,0 +1,180 @@
+package pw.aru.libs.andeclient.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pw.aru.libs.andeclient.entities.OverflowPolicy;
+
+import java.net.http.WebSocket;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded queue of messages with a single writer, which writes them to the websocket one at a time.
+ * Priority messages, such as heartbeats, are written ahead of the other messages and never dropped.
+ */
+class OutgoingQueue {
+    private static final Logger logger = LoggerFactory.getLogger(OutgoingQueue.class);
+
+    private final ScheduledExecutorService executor;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final int flushDelay;
+    private final AtomicLong dropped = new AtomicLong();
+
+    // guarded by this
+    private final ArrayDeque<String> queue = new ArrayDeque<>();
+    private final ArrayDeque<String> priority = new ArrayDeque<>();
+    private WebSocket websocket;
+    private boolean flushing;
+    private boolean closing;
+    private int closeStatusCode;
+    private String closeReason;
+
+    OutgoingQueue(ScheduledExecutorService executor, int capacity, OverflowPolicy overflowPolicy, int flushDelay) {
+        this.executor = executor;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.flushDelay = flushDelay;
+    }
+
+    /**
+     * Queues a message to be written to the websocket.
+     *
+     * @param message the message to be sent.
+     * @return false if a message was dropped because the queue was full.
+     */
+    boolean offer(String message) {
+        boolean overflowed = false;
+        synchronized (this) {
+            if (closing) {
+                return true;
+            }
+
+            if (queue.size() >= capacity) {
+                overflowed = true;
+                dropped.incrementAndGet();
+                if (overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+                    return false;
+                }
+                queue.pollFirst();
+            }
+
+            queue.addLast(message);
+            scheduleFlush();
+        }
+
+        return !overflowed;
+    }
+
+    /**
+     * Queues a message to be written to the websocket before any other queued message, right away.
+     * Priority messages don't count towards the capacity of the queue, and are discarded if the websocket is detached.
+     */
+    synchronized void offerPriority(String message) {
+        if (closing || websocket == null) {
+            return;
+        }
+
+        priority.addLast(message);
+        if (!flushing) {
+            flushing = true;
+            executor.execute(this::flush);
+        }
+    }
+
+    /**
+     * Starts writing the queued messages to the websocket.
+     */
+    synchronized void attach(WebSocket websocket) {
+        this.websocket = websocket;
+        scheduleFlush();
+    }
+
+    /**
+     * Closes the websocket once all queued messages were written. Messages queued after this call are ignored.
+     */
+    synchronized void close(int statusCode, String reason) {
+        closing = true;
+        closeStatusCode = statusCode;
+        closeReason = reason;
+
+        if (!flushing && websocket != null) {
+            flushing = true;
+            executor.execute(this::flush);
+        }
+    }
+
+    /**
+     * Stops writing messages. Queued messages are kept, except for priority messages, which belong to the detached websocket.
+     */
+    synchronized void detach() {
+        this.websocket = null;
+        priority.clear();
+    }
+
+    synchronized int size() {
+        return queue.size() + priority.size();
+    }
+
+    long dropped() {
+        return dropped.get();
+    }
+
+    // guarded by this
+    private void scheduleFlush() {
+        if (flushing || websocket == null || (queue.isEmpty() && !closing)) {
+            return;
+        }
+
+        flushing = true;
+        if (flushDelay > 0) {
+            executor.schedule(this::flush, flushDelay, TimeUnit.MILLISECONDS);
+        } else {
+            executor.execute(this::flush);
+        }
+    }
+
+    /**
+     * Writes messages until the queue is empty or the websocket is still busy with the last message.
+     */
+    private void flush() {
+        while (true) {
+            final WebSocket ws;
+            final String message;
+            synchronized (this) {
+                ws = websocket;
+                message = ws == null ? null : priority.isEmpty() ? queue.pollFirst() : priority.pollFirst();
+                if (message == null) {
+                    flushing = false;
+                    if (closing && ws != null) {
+                        websocket = null;
+                        ws.sendClose(closeStatusCode, closeReason);
+                    }
+                    return;
+                }
+            }
+
+            final CompletableFuture<WebSocket> future = ws.sendText(message, true).toCompletableFuture();
+
+            if (!future.isDone()) {
+                future.whenComplete((ignored, throwable) -> {
+                    if (throwable != null) {
+                        logger.error("Error while sending message to the node.", throwable);
+                    }
+                    flush();
+                });
+                return;
+            }
+
+            if (future.isCompletedExceptionally()) {
+                future.exceptionally(throwable -> {
+                    logger.error("Error while sending message to the node.", throwable);
+                    return null;
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package pw.aru.libs.andeclient.internal;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Control payloads waiting for the node to acknowledge them, keyed by their correlation id.
+ * Entries which aren't acknowledged in time are failed with a {@link TimeoutException} and removed
+ * by a periodic sweep, which checks the deadlines of all entries, so entries don't need their own scheduled tasks.
+ * A timeout of 0 disables the sweep, so entries wait until they're acknowledged or the node is destroyed.
+ */
+class PendingAcks {
+    private final Map<Long, Entry> pending = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final ScheduledExecutorService executor;
+    private final int timeout;
+    private final long timeoutNanos;
+    private volatile Throwable closeCause;
+    // guarded by this
+    private ScheduledFuture<?> sweepTask;
+
+    PendingAcks(ScheduledExecutorService executor, int timeout) {
+        this.executor = executor;
+        this.timeout = timeout;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+    }
+
+    /**
+     * Returns a new correlation id, unique for this node.
+     */
+    long nextId() {
+        return ids.incrementAndGet();
+    }
+
+    /**
+     * Registers a payload waiting for the given id. Once closed, the payload fails right away and isn't registered.
+     */
+    CompletableFuture<Void> register(long id) {
+        var cause = closeCause;
+        if (cause != null) {
+            return CompletableFuture.failedFuture(cause);
+        }
+
+        final var entry = new Entry(System.nanoTime() + timeoutNanos);
+        pending.put(id, entry);
+
+        // the entry might have been added while closing, after the pending entries were failed
+        cause = closeCause;
+        if (cause != null) {
+            pending.remove(id, entry);
+            entry.future.completeExceptionally(cause);
+            return entry.future;
+        }
+
+        if (timeout > 0) {
+            startSweep();
+        }
+        return entry.future;
+    }
+
+    /**
+     * Completes the payload waiting for the given id.
+     *
+     * @return false if no payload was waiting for the id.
+     */
+    boolean complete(long id) {
+        final var entry = pending.remove(id);
+        if (entry == null) {
+            return false;
+        }
+
+        entry.future.complete(null);
+        return true;
+    }
+
+    int size() {
+        return pending.size();
+    }
+
+    /**
+     * Stops the sweep and fails all pending payloads, as well as the payloads registered afterwards.
+     */
+    synchronized void close(Throwable cause) {
+        closeCause = cause;
+        if (sweepTask != null) {
+            sweepTask.cancel(false);
+            sweepTask = null;
+        }
+
+        for (var id : pending.keySet()) {
+            final var entry = pending.remove(id);
+            if (entry != null) {
+                entry.future.completeExceptionally(cause);
+            }
+        }
+    }
+
+    /**
+     * Starts the sweep on the first registered entry, checking the deadlines ten times per timeout.
+     */
+    private synchronized void startSweep() {
+        if (sweepTask != null || closeCause != null) {
+            return;
+        }
+        final long period = Math.max(1, timeoutNanos / 10);
+        sweepTask = executor.scheduleAtFixedRate(this::sweep, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    private void sweep() {
+        final long now = System.nanoTime();
+        for (var it : pending.entrySet()) {
+            final var entry = it.getValue();
+            if (now - entry.deadline >= 0 && pending.remove(it.getKey(), entry)) {
+                entry.future.completeExceptionally(new TimeoutException("node didn't acknowledge the payload within " + timeout + "ms"));
+            }
+        }
+    }
+
+    private static class Entry {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        final long deadline;
+
+        Entry(long deadline) {
+            this.deadline = deadline;
+        }
+    }
+}
@@ -10,13 +10,23 @@ import pw.aru.libs.andeclient.entities.player.PlayerFilter;
 import pw.aru.libs.andeclient.util.AudioTrackUtil;
 
 import javax.annotation.Nonnull;
-import java.util.Objects;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class PlayerControlsImpl implements PlayerControls {
     private final AndePlayerImpl player;
 
+    // payloads waiting for the coalescing window, guarded by this
+    private final Map<String, JsonObject> coalescedPayloads = new LinkedHashMap<>();
+    private final List<CompletableFuture<Void>> coalescedWaiters = new ArrayList<>();
+    private ScheduledFuture<?> coalescedFlush;
+
     PlayerControlsImpl(AndePlayerImpl player) {
         this.player = player;
     }
@@ -75,6 +85,115 @@ public class PlayerControlsImpl implements PlayerControls {
         return new EmptyPayload("stop");
     }
 
+    @Nonnull
+    @Override
+    public Update update() {
+        return new UpdatePayload();
+    }
+
+    @Nonnull
+    @Override
+    public Batch batch() {
+        return new BatchPayload();
+    }
+
+    private void checkDestroyed() {
+        if (player.state == EntityState.DESTROYED) {
+            throw new IllegalStateException("Destroyed AndePlayer, please create a new one with AndeClient#newPlayer.");
+        }
+    }
+
+    /**
+     * Replaces the pending payload with the same op, which is sent once the coalescing window ends.
+     * Payloads describe the whole state they change, so the latest one supersedes the earlier ones.
+     */
+    private synchronized void coalesce(String op, JsonObject payload, CompletableFuture<Void> waiter) {
+        coalescedPayloads.put(op, payload);
+        if (waiter != null) {
+            coalescedWaiters.add(waiter);
+        }
+
+        if (coalescedFlush == null) {
+            coalescedFlush = player.client.executor.schedule(
+                this::flushCoalesced, player.client.controlsCoalescingWindow, TimeUnit.MILLISECONDS
+            );
+        }
+    }
+
+    /**
+     * Sends the coalesced payloads, followed by a single ping which acknowledges all of them.
+     * Called before any other payload is sent, so that the payloads keep their order.
+     */
+    synchronized void flushCoalesced() {
+        if (coalescedFlush != null) {
+            coalescedFlush.cancel(false);
+            coalescedFlush = null;
+        }
+        if (coalescedPayloads.isEmpty()) {
+            return;
+        }
+
+        if (player.state == EntityState.DESTROYED) {
+            discardCoalesced();
+            return;
+        }
+
+        final var node = player.node;
+        final var guildId = Long.toString(player.guildId());
+        for (var entry : coalescedPayloads.entrySet()) {
+            final var json = entry.getValue();
+            json.put("op", entry.getKey());
+            json.put("guildId", guildId);
+            node.handleOutgoing(json);
+        }
+        coalescedPayloads.clear();
+
+        if (!coalescedWaiters.isEmpty()) {
+            final var waiters = List.copyOf(coalescedWaiters);
+            coalescedWaiters.clear();
+
+            final long id = node.acks.nextId();
+            node.acks.register(id).whenComplete((ignored, throwable) -> {
+                for (var waiter : waiters) {
+                    if (throwable != null) {
+                        waiter.completeExceptionally(throwable);
+                    } else {
+                        waiter.complete(null);
+                    }
+                }
+            });
+            writePing(id, JsonObject.builder());
+        }
+    }
+
+    /**
+     * Drops the coalesced payloads, failing everyone waiting on them.
+     */
+    synchronized void discardCoalesced() {
+        if (coalescedFlush != null) {
+            coalescedFlush.cancel(false);
+            coalescedFlush = null;
+        }
+
+        final var exception = new IllegalStateException("AndePlayer was destroyed before the payload was sent.");
+        for (var waiter : coalescedWaiters) {
+            waiter.completeExceptionally(exception);
+        }
+        coalescedWaiters.clear();
+        coalescedPayloads.clear();
+    }
+
+    private void writePing(long id, JsonBuilder<JsonObject> ping) {
+        final var node = player.node;
+        ping.value("op", "ping");
+        if (node.legacyControlIds) {
+            ping.value(AndesiteNodeImpl.LEGACY_CONTROLS_ID, Long.toString(id));
+        } else {
+            ping.value(AndesiteNodeImpl.CONTROLS_ID, id);
+        }
+        node.handleOutgoing(ping.done());
+    }
+
     private abstract class AbstractPayload<T> implements Payload<T> {
         private final String op;
 
@@ -82,42 +201,75 @@ public class PlayerControlsImpl implements PlayerControls {
             this.op = op;
         }
 
+        PlayerControlsImpl controls() {
+            return PlayerControlsImpl.this;
+        }
+
         protected abstract JsonBuilder<JsonObject> createPayload();
 
         protected JsonBuilder<JsonObject> createPingPayload() {
             return JsonObject.builder();
         }
 
+        /**
+         * Whether a later payload with the same op supersedes this one, allowing them to be coalesced.
+         */
+        protected boolean coalescible() {
+            return false;
+        }
+
+        private boolean coalescing() {
+            return player.client.controlsCoalescingWindow > 0 && coalescible();
+        }
+
+        @Override
+        public void send() {
+            checkDestroyed();
+
+            if (coalescing()) {
+                coalesce(op, createPayload().done(), null);
+                return;
+            }
+
+            flushCoalesced();
+            writePayload();
+        }
+
         @Nonnull
         @Override
         public CompletionStage<T> submit() {
-            if (player.state == EntityState.DESTROYED) {
-                throw new IllegalStateException("Destroyed AndePlayer, please create a new one with AndeClient#newPlayer.");
+            checkDestroyed();
+
+            if (coalescing()) {
+                final var waiter = new CompletableFuture<Void>();
+                coalesce(op, createPayload().done(), waiter);
+                return waiter.thenApply(ignored -> map());
             }
 
-            player.node.handleOutgoing(
-                createPayload()
-                    .value("op", op)
-                    .value("guildId", Long.toString(player.guildId()))
-                    .done()
-            );
+            flushCoalesced();
+
+            final var node = player.node;
+            final long id = node.acks.nextId();
 
-            var randomUUID = UUID.randomUUID().toString();
+            var stage = node.acks.register(id)
+                .thenApply(ignored -> map());
 
-            var stage = player.node.pongRelay.first(data -> Objects.equals(data.get("__andeclient_controls_uuid"), randomUUID))
-                .thenApply(this::map);
+            writePayload();
+            writePing(id, createPingPayload());
+
+            return stage;
+        }
 
+        void writePayload() {
             player.node.handleOutgoing(
-                createPingPayload()
-                    .value("op", "ping")
-                    .value("__andeclient_controls_uuid", randomUUID)
+                createPayload()
+                    .value("op", op)
+                    .value("guildId", Long.toString(player.guildId()))
                     .done()
             );
-
-            return stage;
         }
 
-        protected abstract T map(JsonObject data);
+        protected abstract T map();
     }
 
     private abstract class VoidPayload extends AbstractPayload<Void> {
@@ -126,7 +278,7 @@ public class PlayerControlsImpl implements PlayerControls {
         }
 
         @Override
-        protected Void map(JsonObject data) {
+        protected Void map() {
             return null;
         }
     }
@@ -150,6 +302,11 @@ public class PlayerControlsImpl implements PlayerControls {
             this.payload = payload;
         }
 
+        @Override
+        protected boolean coalescible() {
+            return true;
+        }
+
         @Override
         protected JsonBuilder<JsonObject> createPayload() {
             return payload;
@@ -242,6 +399,98 @@ public class PlayerControlsImpl implements PlayerControls {
         }
     }
 
+    private class UpdatePayload extends VoidPayload implements Update {
+        private String trackString;
+        private Boolean pause;
+        private Integer volume;
+        private Long position;
+        private PlayerFilter[] filters;
+
+        UpdatePayload() {
+            super("update");
+        }
+
+        @Nonnull
+        @Override
+        public Update track(@Nonnull String trackString) {
+            this.trackString = trackString;
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public Update track(@Nonnull AudioTrack track) {
+            return track(AudioTrackUtil.fromTrack(track));
+        }
+
+        @Nonnull
+        @Override
+        public Update pause(Boolean isPaused) {
+            this.pause = isPaused;
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public Update volume(Integer volume) {
+            this.volume = volume;
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public Update seek(Long position) {
+            this.position = position;
+            return this;
+        }
+
+        @Nonnull
+        @Override
+        public Update filters(PlayerFilter... filters) {
+            this.filters = filters;
+            return this;
+        }
+
+        @Override
+        void writePayload() {
+            if (trackString == null) {
+                super.writePayload();
+                return;
+            }
+
+            // the play op already takes everything but the filters
+            final var play = new PlayPayload();
+            play.trackString = trackString;
+            play.start = position;
+            play.pause = pause;
+            play.volume = volume;
+            play.writePayload();
+
+            if (filters != null) {
+                new FiltersPayload(filters).writePayload();
+            }
+        }
+
+        @Override
+        protected JsonBuilder<JsonObject> createPayload() {
+            final var json = JsonObject.builder();
+
+            if (pause != null) json.value("pause", pause);
+            if (volume != null) json.value("volume", volume);
+            if (position != null) json.value("position", position);
+            if (filters != null) {
+                json.object("filters");
+                for (var filter : filters) {
+                    var entry = filter.updatePayload();
+                    json.value(entry.getKey(), entry.getValue());
+                }
+                json.end();
+            }
+
+            return json;
+        }
+    }
+
     private class MixerPayload extends VoidPayload implements Mixer {
         MixerPayload() {
             super("mixer");
@@ -273,6 +522,11 @@ public class PlayerControlsImpl implements PlayerControls {
             this.filters = filters;
         }
 
+        @Override
+        protected boolean coalescible() {
+            return true;
+        }
+
         @Override
         protected JsonBuilder<JsonObject> createPayload() {
             final var json = JsonObject.builder();
@@ -285,4 +539,47 @@ public class PlayerControlsImpl implements PlayerControls {
             return json;
         }
     }
+
+    private class BatchPayload implements Batch {
+        private final List<AbstractPayload<?>> payloads = new ArrayList<>();
+
+        @Nonnull
+        @Override
+        public Batch add(@Nonnull Payload<?> payload) {
+            if (!(payload instanceof AbstractPayload) || ((AbstractPayload<?>) payload).controls().player != player) {
+                throw new IllegalArgumentException("payload wasn't created by this player's controls");
+            }
+            payloads.add((AbstractPayload<?>) payload);
+            return this;
+        }
+
+        @Override
+        public void send() {
+            checkDestroyed();
+            flushCoalesced();
+            for (var payload : payloads) {
+                payload.writePayload();
+            }
+        }
+
+        @Nonnull
+        @Override
+        public CompletionStage<Void> submit() {
+            checkDestroyed();
+            flushCoalesced();
+
+            final var node = player.node;
+            final long id = node.acks.nextId();
+
+            var stage = node.acks.register(id)
+                .<Void>thenApply(ignored -> null);
+
+            for (var payload : payloads) {
+                payload.writePayload();
+            }
+            writePing(id, JsonObject.builder());
+
+            return stage;
+        }
+    }
 }
@@ -0,0 +1,59 @@
+package pw.aru.libs.andeclient.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs tasks with the same key one at a time, in submission order, while tasks with different keys run in parallel on the executor.
+ */
+class SerialExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(SerialExecutor.class);
+
+    private final Executor executor;
+    // a key is present while one of its tasks is running, mapped to the tasks waiting after it
+    private final Map<Object, ArrayDeque<Runnable>> queues = new ConcurrentHashMap<>();
+
+    SerialExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    void execute(Object key, Runnable task) {
+        final boolean[] idle = {false};
+        queues.compute(key, (ignored, queue) -> {
+            if (queue == null) {
+                idle[0] = true;
+                return new ArrayDeque<>();
+            }
+            queue.addLast(task);
+            return queue;
+        });
+
+        if (idle[0]) {
+            executor.execute(() -> run(key, task));
+        }
+    }
+
+    private void run(Object key, Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            logger.error("Error while running task for {}", key, e);
+        }
+
+        final Runnable[] next = {null};
+        queues.computeIfPresent(key, (ignored, queue) -> {
+            next[0] = queue.pollFirst();
+            return next[0] == null ? null : queue;
+        });
+
+        // resubmitted instead of looping, so a busy key doesn't hold the thread from other keys
+        if (next[0] != null) {
+            executor.execute(() -> run(key, next[0]));
+        }
+    }
+}
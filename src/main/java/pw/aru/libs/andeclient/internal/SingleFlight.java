@@ -0,0 +1,52 @@
+package pw.aru.libs.andeclient.internal;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Deduplicates concurrent loads of the same key, so callers arriving while a load is in flight share its result.
+ */
+class SingleFlight<K, V> {
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    CompletionStage<V> load(K key, Function<K, CompletionStage<V>> loader) {
+        final boolean[] leader = {false};
+        final var future = inFlight.computeIfAbsent(key, ignored -> {
+            leader[0] = true;
+            return new CompletableFuture<>();
+        });
+
+        if (!leader[0]) {
+            coalesced.incrementAndGet();
+            return future.minimalCompletionStage();
+        }
+
+        try {
+            loader.apply(key).whenComplete((value, throwable) -> {
+                inFlight.remove(key, future);
+                if (throwable != null) {
+                    future.completeExceptionally(throwable);
+                } else {
+                    future.complete(value);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+        }
+
+        return future.minimalCompletionStage();
+    }
+
+    /**
+     * Returns the amount of loads which were served by a load already in flight.
+     */
+    long coalesced() {
+        return coalesced.get();
+    }
+}
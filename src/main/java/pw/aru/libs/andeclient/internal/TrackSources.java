@@ -0,0 +1,71 @@
+package pw.aru.libs.andeclient.internal;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.net.URI;
+import java.util.Locale;
+
+/**
+ * Guesses which source of andesite will resolve an identifier, using the names listed in {@code enabledSources}.
+ */
+final class TrackSources {
+    private TrackSources() {}
+
+    /**
+     * Finds the source of an identifier, from its search prefix or from the host of its url.
+     *
+     * @return the source name, or null if the identifier doesn't clearly belong to a source.
+     */
+    @Nullable
+    static String sourceOf(@Nonnull String identifier) {
+        if (identifier.startsWith("ytsearch:") || identifier.startsWith("ytmsearch:")) {
+            return "youtube";
+        }
+        if (identifier.startsWith("scsearch:")) {
+            return "soundcloud";
+        }
+        if (!identifier.startsWith("http://") && !identifier.startsWith("https://")) {
+            return null;
+        }
+
+        final String host;
+        try {
+            host = URI.create(identifier).getHost();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (host == null) {
+            return null;
+        }
+
+        switch (domain(host.toLowerCase(Locale.ROOT))) {
+            case "youtube.com":
+            case "youtu.be":
+                return "youtube";
+            case "soundcloud.com":
+                return "soundcloud";
+            case "bandcamp.com":
+                return "bandcamp";
+            case "twitch.tv":
+                return "twitch";
+            case "vimeo.com":
+                return "vimeo";
+            case "mixer.com":
+                return "mixer";
+            default:
+                return "http";
+        }
+    }
+
+    /**
+     * Strips the subdomains of a host, so {@code music.youtube.com} becomes {@code youtube.com}.
+     */
+    private static String domain(String host) {
+        final int last = host.lastIndexOf('.');
+        if (last <= 0) {
+            return host;
+        }
+        final int previous = host.lastIndexOf('.', last - 1);
+        return previous < 0 ? host : host.substring(previous + 1);
+    }
+}
@@ -2,6 +2,7 @@ package pw.aru.libs.andeclient.util;
 
 import com.grack.nanojson.JsonArray;
 import com.grack.nanojson.JsonObject;
+import com.grack.nanojson.JsonParserException;
 import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import org.slf4j.Logger;
@@ -12,9 +13,12 @@ import pw.aru.libs.andeclient.entities.internal.*;
 import pw.aru.libs.andeclient.entities.player.DefaultFilters;
 import pw.aru.libs.andeclient.entities.player.PlayerFilter;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 public class AndesiteUtil {
@@ -54,6 +58,18 @@ public class AndesiteUtil {
             .build();
     }
 
+    /**
+     * Reads the load result from a response body as it's received, decoding the tracks while the rest of the body is read.
+     * Once a playlist reaches {@code parallelThreshold} tracks, its remaining tracks are decoded in parallel on the given executor.
+     * If {@code lazy} is set, the tracks of playlists aren't decoded until they're accessed.
+     * <p>
+     * This method blocks until the whole body is read, so it shouldn't be called from the http client threads.
+     */
+    public static CompletionStage<AudioLoadResult> audioLoadResult(InputStream body, Executor executor, int parallelThreshold, boolean lazy)
+        throws JsonParserException {
+        return new LoadResultReader(body, executor, parallelThreshold, lazy).read();
+    }
+
     public static AudioLoadResult audioLoadResult(JsonObject json) {
         switch (json.getString("loadType")) {
             case "TRACK_LOADED": {
@@ -65,23 +81,11 @@ public class AndesiteUtil {
             }
             case "PLAYLIST_LOADED":
             case "SEARCH_RESULT": {
-                List<AudioTrack> tracks = json.getArray("tracks").stream()
-                    .filter(track -> track instanceof JsonObject)
-                    .map(track -> (JsonObject) track)
-                    .map(jsonTrack -> AudioTrackUtil.fromString(jsonTrack.getString("track")))
+                List<AudioTrack> tracks = trackStrings(json).stream()
+                    .map(AudioTrackUtil::fromString)
                     .collect(Collectors.toUnmodifiableList());
 
-                final JsonObject info = json.getObject("playlistInfo");
-                final String name = info.getString("name");
-                final int selected = info.getInt("selectedTrack", -1);
-
-                return ActualPlaylist.builder()
-                    .searchResults(json.getString("loadType").equals("SEARCH_RESULT"))
-                    .tracks(tracks)
-                    .playlistName(name)
-                    .selectedIndex(selected)
-                    .selectedTrack(selected < 0 ? null : tracks.get(selected))
-                    .build();
+                return playlist(json, tracks);
             }
             case "LOAD_FAILED": {
                 return ActualFailed.builder()
@@ -99,6 +103,60 @@ public class AndesiteUtil {
         }
     }
 
+    private static List<String> trackStrings(JsonObject json) {
+        return json.getArray("tracks").stream()
+            .filter(track -> track instanceof JsonObject)
+            .map(track -> ((JsonObject) track).getString("track"))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Builds the load result from the parts read by {@link LoadResultReader}, with the tracks already decoded.
+     */
+    static AudioLoadResult audioLoadResult(String loadType, List<AudioTrack> tracks, JsonObject playlistInfo, JsonObject cause, String severity) {
+        switch (String.valueOf(loadType)) {
+            case "TRACK_LOADED": {
+                return ActualTrack.builder()
+                    .track(tracks.get(0))
+                    .build();
+            }
+            case "PLAYLIST_LOADED":
+            case "SEARCH_RESULT": {
+                return playlist(loadType, playlistInfo, List.copyOf(tracks));
+            }
+            case "LOAD_FAILED": {
+                return ActualFailed.builder()
+                    .cause(cause.getString("message"))
+                    .severity(FriendlyException.Severity.valueOf(severity))
+                    .build();
+            }
+            case "NO_MATCHES": {
+                return AudioLoadResult.NO_MATCHES;
+            }
+            default: {
+                logger.warn("unknown loadType {}", loadType);
+                return AudioLoadResult.UNKNOWN;
+            }
+        }
+    }
+
+    private static AudioLoadResult playlist(JsonObject json, List<AudioTrack> tracks) {
+        return playlist(json.getString("loadType"), json.getObject("playlistInfo"), tracks);
+    }
+
+    private static AudioLoadResult playlist(String loadType, JsonObject info, List<AudioTrack> tracks) {
+        final String name = info.getString("name");
+        final int selected = info.getInt("selectedTrack", -1);
+
+        return ActualPlaylist.builder()
+            .searchResults(loadType.equals("SEARCH_RESULT"))
+            .tracks(tracks)
+            .playlistName(name)
+            .selectedIndex(selected)
+            .selectedTrack(selected < 0 ? null : tracks.get(selected))
+            .build();
+    }
+
     private static List<String> toStringList(JsonArray array) {
         return array.stream()
             .map(Object::toString)
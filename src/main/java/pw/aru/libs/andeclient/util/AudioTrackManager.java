@@ -207,6 +207,15 @@ public class AudioTrackManager implements AudioPlayerManager {
     @Override
     public void encodeTrack(MessageOutput stream, AudioTrack track) throws IOException {
         DataOutput output = stream.startMessage();
+        stream.commitMessage(encodeTrack(output, track));
+    }
+
+    /**
+     * Writes the body of a track message.
+     *
+     * @return the flags of the message.
+     */
+    int encodeTrack(DataOutput output, AudioTrack track) throws IOException {
         output.write(TRACK_INFO_VERSION);
 
         AudioTrackInfo trackInfo = track.getInfo();
@@ -220,7 +229,7 @@ public class AudioTrackManager implements AudioPlayerManager {
         encodeTrackDetails(track, output);
         output.writeLong(track.getPosition());
 
-        stream.commitMessage(TRACK_INFO_VERSIONED);
+        return TRACK_INFO_VERSIONED;
     }
 
     @Override
@@ -230,7 +239,20 @@ public class AudioTrackManager implements AudioPlayerManager {
             return null;
         }
 
-        int version = (stream.getMessageFlags() & TRACK_INFO_VERSIONED) != 0 ? (input.readByte() & 0xFF) : 1;
+        AudioTrack track = decodeTrack(input, stream.getMessageFlags());
+
+        stream.skipRemainingBytes();
+
+        return new DecodedTrackHolder(track);
+    }
+
+    /**
+     * Reads the body of a track message.
+     *
+     * @return the track, or null if its source isn't registered.
+     */
+    AudioTrack decodeTrack(DataInput input, int messageFlags) throws IOException {
+        int version = (messageFlags & TRACK_INFO_VERSIONED) != 0 ? (input.readByte() & 0xFF) : 1;
 
         AudioTrackInfo trackInfo = new AudioTrackInfo(input.readUTF(), input.readUTF(), input.readLong(), input.readUTF(),
             input.readBoolean(), version >= 2 ? DataFormatTools.readNullableText(input) : null);
@@ -241,9 +263,7 @@ public class AudioTrackManager implements AudioPlayerManager {
             track.setPosition(position);
         }
 
-        stream.skipRemainingBytes();
-
-        return new DecodedTrackHolder(track);
+        return track;
     }
 
     private void encodeTrackDetails(AudioTrack track, DataOutput output) throws IOException {
@@ -7,23 +7,23 @@ import com.sedmelluq.discord.lavaplayer.source.soundcloud.SoundCloudAudioSourceM
 import com.sedmelluq.discord.lavaplayer.source.twitch.TwitchStreamAudioSourceManager;
 import com.sedmelluq.discord.lavaplayer.source.vimeo.VimeoAudioSourceManager;
 import com.sedmelluq.discord.lavaplayer.source.youtube.YoutubeAudioSourceManager;
-import com.sedmelluq.discord.lavaplayer.tools.io.MessageInput;
-import com.sedmelluq.discord.lavaplayer.tools.io.MessageOutput;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
-import net.iharder.Base64;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import pw.aru.libs.andeclient.entities.CacheStats;
 import pw.aru.libs.andeclient.exceptions.LocalTrackException;
 
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nonnull;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import javax.annotation.Nullable;
 import java.io.IOException;
 
 public class AudioTrackUtil {
     private static final AudioTrackManager manager = new AudioTrackManager();
     private static final Logger logger = LoggerFactory.getLogger(AudioTrackUtil.class);
+    private static volatile DecodedTrackCache cache;
+    // tracks handed out by fromString, mapped to the string they were decoded from
+    private static final WeakIdentityMap<AudioTrack, Encoded> encoded = new WeakIdentityMap<>();
 
     static {
         manager.registerSourceManager(new YoutubeAudioSourceManager(true));
@@ -35,11 +35,76 @@ public class AudioTrackUtil {
         manager.registerSourceManager(new VimeoAudioSourceManager());
     }
 
+    /**
+     * Caches decoded tracks, so decoding the same string again only clones the cached track.
+     * Replaces the current cache, if any.
+     *
+     * @param maxEntries the maximum amount of cached tracks.
+     * @param maxWeight  the maximum total length of the encoded strings of the cached tracks.
+     */
+    public static void enableCache(int maxEntries, long maxWeight) {
+        if (maxEntries <= 0 || maxWeight <= 0) {
+            throw new IllegalArgumentException("cache bounds must be positive");
+        }
+        cache = new DecodedTrackCache(maxEntries, maxWeight);
+    }
+
+    /**
+     * Stops caching decoded tracks and drops the cached ones.
+     */
+    public static void disableCache() {
+        cache = null;
+    }
+
+    /**
+     * Returns the counters of the decoded track cache.
+     *
+     * @return the cache stats, or null if the cache isn't enabled.
+     */
+    @CheckReturnValue
+    @Nullable
+    public static CacheStats cacheStats() {
+        final var cache = AudioTrackUtil.cache;
+        return cache == null ? null : cache.stats();
+    }
+
     @CheckReturnValue
     @Nonnull
     public static AudioTrack fromString(@Nonnull final String data) {
+        final var track = decodeOrClone(data);
+        if (track != null) {
+            encoded.put(track, new Encoded(data, track.getPosition()));
+        }
+        return track;
+    }
+
+    private static AudioTrack decodeOrClone(final String data) {
+        final var cache = AudioTrackUtil.cache;
+        if (cache == null) {
+            return decode(data);
+        }
+
+        // the cached track is a template which is never handed out, only cloned
+        var template = cache.get(data);
+        if (template == null) {
+            template = decode(data);
+            if (template == null) {
+                // tracks which can't be decoded aren't cached, like on the uncached path
+                return null;
+            }
+            cache.put(data, template);
+        }
+
+        final var track = template.makeClone();
+        if (template.getPosition() != 0) {
+            track.setPosition(template.getPosition());
+        }
+        return track;
+    }
+
+    private static AudioTrack decode(final String data) {
         try {
-            return manager.decodeTrack(new MessageInput(new ByteArrayInputStream(Base64.decode(data)))).decodedTrack;
+            return TrackCodec.local().decode(manager, data);
         } catch (final IOException e) {
             logger.error("error when decoding track: {} | {}", data, e);
             throw new LocalTrackException(e);
@@ -49,13 +114,27 @@ public class AudioTrackUtil {
     @CheckReturnValue
     @Nonnull
     public static String fromTrack(@Nonnull final AudioTrack track) {
+        // tracks which were decoded by fromString reuse their original string, unless they were moved since
+        final var original = encoded.get(track);
+        if (original != null && original.position == track.getPosition()) {
+            return original.data;
+        }
+
         try {
-            final var stream = new ByteArrayOutputStream();
-            manager.encodeTrack(new MessageOutput(stream), track);
-            return Base64.encodeBytes(stream.toByteArray());
+            return TrackCodec.local().encode(manager, track);
         } catch (final IOException e) {
             logger.error("error when encoding track: {} | {}", track.getIdentifier(), e);
             throw new LocalTrackException(e);
         }
     }
+
+    private static class Encoded {
+        final String data;
+        final long position;
+
+        Encoded(String data, long position) {
+            this.data = data;
+            this.position = position;
+        }
+    }
 }
@@ -0,0 +1,71 @@
+package pw.aru.libs.andeclient.util;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import pw.aru.libs.andeclient.entities.CacheStats;
+import pw.aru.libs.andeclient.entities.internal.ActualCacheStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least recently used cache of decoded tracks, keyed by their encoded string.
+ * Bounded both by the amount of entries and by their weight, which is the length of the encoded string
+ * and grows with the size of the track info.
+ */
+class DecodedTrackCache {
+    private final int maxEntries;
+    private final long maxWeight;
+
+    // guarded by this
+    private final Map<String, AudioTrack> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    DecodedTrackCache(int maxEntries, long maxWeight) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Returns the cached template of the track, or null if it isn't cached.
+     */
+    synchronized AudioTrack get(String data) {
+        final var track = entries.get(data);
+        if (track == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return track;
+    }
+
+    synchronized void put(String data, AudioTrack track) {
+        if (data.length() > maxWeight) {
+            return;
+        }
+
+        if (entries.put(data, track) == null) {
+            weight += data.length();
+        }
+
+        final var iterator = entries.keySet().iterator();
+        while (entries.size() > maxEntries || weight > maxWeight) {
+            final var eldest = iterator.next();
+            iterator.remove();
+            weight -= eldest.length();
+            evictions++;
+        }
+    }
+
+    synchronized CacheStats stats() {
+        return ActualCacheStats.builder()
+            .hits(hits)
+            .misses(misses)
+            .evictions(evictions)
+            .size(entries.size())
+            .weight(weight)
+            .build();
+    }
+}
@@ -0,0 +1,157 @@
+package pw.aru.libs.andeclient.util;
+
+import com.grack.nanojson.JsonObject;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import pw.aru.libs.andeclient.entities.AudioLoadResult;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A playlist which only decodes its tracks when they're accessed.
+ * The track infos are read from the info sent by the node, without decoding the tracks.
+ */
+final class LazyPlaylist implements AudioLoadResult.Playlist {
+    private final boolean searchResults;
+    private final String playlistName;
+    private final int selectedIndex;
+    private final List<String> encodedTracks;
+    private final List<JsonObject> infos;
+    private final LazyTrackList tracks;
+    private volatile List<AudioTrackInfo> trackInfos;
+
+    /**
+     * @param encodedTracks the encoded tracks.
+     * @param infos         the info objects sent by the node for each track, which might be null.
+     */
+    LazyPlaylist(boolean searchResults, String playlistName, int selectedIndex, List<String> encodedTracks, List<JsonObject> infos) {
+        this.searchResults = searchResults;
+        this.playlistName = playlistName;
+        this.selectedIndex = selectedIndex;
+        this.encodedTracks = List.copyOf(encodedTracks);
+        this.infos = infos;
+        this.tracks = new LazyTrackList(this.encodedTracks);
+    }
+
+    @Override
+    public boolean searchResults() {
+        return searchResults;
+    }
+
+    @Nonnull
+    @Override
+    public String playlistName() {
+        return playlistName;
+    }
+
+    @Nonnull
+    @Override
+    public List<AudioTrack> tracks() {
+        return tracks;
+    }
+
+    @Nonnull
+    @Override
+    public List<String> encodedTracks() {
+        return encodedTracks;
+    }
+
+    @Nonnull
+    @Override
+    public List<AudioTrackInfo> trackInfos() {
+        var trackInfos = this.trackInfos;
+        if (trackInfos == null) {
+            final var array = new AudioTrackInfo[encodedTracks.size()];
+            for (int i = 0; i < array.length; i++) {
+                final var info = infos.get(i);
+                array[i] = info != null ? trackInfo(info) : tracks.get(i).getInfo();
+            }
+            trackInfos = List.of(array);
+            this.trackInfos = trackInfos;
+        }
+        return trackInfos;
+    }
+
+    @Nullable
+    @Override
+    public AudioTrack selectedTrack() {
+        return selectedIndex < 0 ? null : tracks.get(selectedIndex);
+    }
+
+    @Override
+    public int selectedIndex() {
+        return selectedIndex;
+    }
+
+    /**
+     * Compares the encoded tracks instead of the tracks, so comparing playlists doesn't decode them.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LazyPlaylist)) return false;
+        final var other = (LazyPlaylist) o;
+        return searchResults == other.searchResults
+            && selectedIndex == other.selectedIndex
+            && Objects.equals(playlistName, other.playlistName)
+            && encodedTracks.equals(other.encodedTracks);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(searchResults, playlistName, selectedIndex, encodedTracks);
+    }
+
+    @Override
+    public String toString() {
+        return "LazyPlaylist{searchResults=" + searchResults + ", playlistName=" + playlistName
+            + ", tracks=" + encodedTracks.size() + ", selectedIndex=" + selectedIndex + "}";
+    }
+
+    private static AudioTrackInfo trackInfo(JsonObject info) {
+        return new AudioTrackInfo(
+            info.getString("title"),
+            info.getString("author"),
+            info.getLong("length"),
+            info.getString("identifier"),
+            info.getBoolean("isStream"),
+            info.getString("uri")
+        );
+    }
+
+    /**
+     * An immutable list which decodes each track on its first access.
+     */
+    private static class LazyTrackList extends AbstractList<AudioTrack> implements RandomAccess {
+        private final List<String> encodedTracks;
+        private final AtomicReferenceArray<AudioTrack> decoded;
+
+        LazyTrackList(List<String> encodedTracks) {
+            this.encodedTracks = encodedTracks;
+            this.decoded = new AtomicReferenceArray<>(encodedTracks.size());
+        }
+
+        @Override
+        public AudioTrack get(int index) {
+            final var track = decoded.get(index);
+            if (track != null) {
+                return track;
+            }
+
+            // racing threads might decode the same track, but all of them get the first one stored
+            decoded.compareAndSet(index, null, AudioTrackUtil.fromString(encodedTracks.get(index)));
+            return decoded.get(index);
+        }
+
+        @Override
+        public int size() {
+            return encodedTracks.size();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package pw.aru.libs.andeclient.util;
+
+import com.grack.nanojson.JsonArray;
+import com.grack.nanojson.JsonObject;
+import com.grack.nanojson.JsonParserException;
+import com.grack.nanojson.JsonReader;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import pw.aru.libs.andeclient.entities.AudioLoadResult;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+/**
+ * Reads a load result from a response body as it's received, without building the json of the whole response.
+ * Tracks are decoded while the rest of the body is still being read: inline until the playlist reaches the parallel threshold,
+ * then in chunks on the executor.
+ * <p>
+ * Instances read a single response and aren't thread-safe.
+ */
+final class LoadResultReader {
+    private static final int DECODE_CHUNK_SIZE = 64;
+
+    private final JsonReader reader;
+    private final Executor executor;
+    private final int parallelThreshold;
+    private final boolean lazy;
+
+    private String loadType;
+    private JsonObject playlistInfo;
+    private JsonObject cause;
+    private String severity;
+
+    private final List<String> pending = new ArrayList<>();
+    private final List<JsonObject> infos = new ArrayList<>();
+    private final List<AudioTrack> decoded = new ArrayList<>();
+    private final List<CompletableFuture<AudioTrack[]>> chunks = new ArrayList<>();
+    private int trackCount;
+
+    LoadResultReader(InputStream body, Executor executor, int parallelThreshold, boolean lazy) throws JsonParserException {
+        this.reader = JsonReader.from(body);
+        this.executor = executor;
+        this.parallelThreshold = parallelThreshold;
+        this.lazy = lazy;
+    }
+
+    CompletionStage<AudioLoadResult> read() throws JsonParserException {
+        reader.object();
+        while (reader.next()) {
+            switch (reader.key()) {
+                case "loadType": {
+                    loadType = reader.string();
+                    break;
+                }
+                case "tracks": {
+                    readTracks();
+                    break;
+                }
+                case "playlistInfo": {
+                    playlistInfo = readObject();
+                    break;
+                }
+                case "cause": {
+                    cause = readObject();
+                    break;
+                }
+                case "severity": {
+                    severity = reader.current() == JsonReader.Type.NULL ? null : reader.string();
+                    break;
+                }
+                default: {
+                    readValue();
+                    break;
+                }
+            }
+        }
+
+        if (lazy) {
+            return CompletableFuture.completedFuture(lazyResult());
+        }
+
+        if (chunks.isEmpty()) {
+            decodePending();
+            return CompletableFuture.completedFuture(result(decoded));
+        }
+
+        submitPending();
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            final var tracks = new ArrayList<>(decoded);
+            for (var chunk : chunks) {
+                tracks.addAll(List.of(chunk.join()));
+            }
+            return result(tracks);
+        });
+    }
+
+    private void readTracks() throws JsonParserException {
+        if (reader.current() == JsonReader.Type.NULL) {
+            reader.nul();
+            return;
+        }
+
+        reader.array();
+        while (reader.next()) {
+            if (reader.current() != JsonReader.Type.OBJECT) {
+                readValue();
+                continue;
+            }
+
+            String track = null;
+            JsonObject info = null;
+            reader.object();
+            while (reader.next()) {
+                final var key = reader.key();
+                if (key.equals("track")) {
+                    track = reader.string();
+                } else if (key.equals("info") && lazy) {
+                    info = readObject();
+                } else {
+                    readValue();
+                }
+            }
+
+            if (track == null) {
+                // entries without an encoded track can't be decoded, so they're skipped on both paths
+                continue;
+            }
+
+            if (lazy) {
+                pending.add(track);
+                infos.add(info);
+            } else {
+                addTrack(track);
+            }
+        }
+    }
+
+    private void addTrack(String track) {
+        pending.add(track);
+        trackCount++;
+
+        if (trackCount < parallelThreshold) {
+            // small playlists are decoded right away on the reading thread
+            decodePending();
+        } else if (pending.size() >= DECODE_CHUNK_SIZE) {
+            submitPending();
+        }
+    }
+
+    private void decodePending() {
+        for (var track : pending) {
+            decoded.add(AudioTrackUtil.fromString(track));
+        }
+        pending.clear();
+    }
+
+    private void submitPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        final var chunk = pending.toArray(new String[0]);
+        pending.clear();
+        chunks.add(CompletableFuture.supplyAsync(() -> {
+            final var tracks = new AudioTrack[chunk.length];
+            for (int i = 0; i < chunk.length; i++) {
+                tracks[i] = AudioTrackUtil.fromString(chunk[i]);
+            }
+            return tracks;
+        }, executor));
+    }
+
+    private AudioLoadResult lazyResult() {
+        if (!"PLAYLIST_LOADED".equals(loadType) && !"SEARCH_RESULT".equals(loadType)) {
+            final List<AudioTrack> tracks = new ArrayList<>();
+            for (var track : pending) {
+                tracks.add(AudioTrackUtil.fromString(track));
+            }
+            return result(tracks);
+        }
+
+        return new LazyPlaylist(
+            loadType.equals("SEARCH_RESULT"), playlistInfo.getString("name"), playlistInfo.getInt("selectedTrack", -1), pending, infos
+        );
+    }
+
+    private AudioLoadResult result(List<AudioTrack> tracks) {
+        return AndesiteUtil.audioLoadResult(loadType, tracks, playlistInfo, cause, severity);
+    }
+
+    private JsonObject readObject() throws JsonParserException {
+        if (reader.current() == JsonReader.Type.NULL) {
+            reader.nul();
+            return null;
+        }
+        return (JsonObject) readValue();
+    }
+
+    /**
+     * Reads the current value, building objects and arrays as {@link JsonReader#value()} only reads simple values.
+     */
+    private Object readValue() throws JsonParserException {
+        switch (reader.current()) {
+            case OBJECT: {
+                final var object = new JsonObject();
+                reader.object();
+                while (reader.next()) {
+                    final var key = reader.key();
+                    object.put(key, readValue());
+                }
+                return object;
+            }
+            case ARRAY: {
+                final var array = new JsonArray();
+                reader.array();
+                while (reader.next()) {
+                    array.add(readValue());
+                }
+                return array;
+            }
+            default: {
+                return reader.value();
+            }
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package pw.aru.libs.andeclient.util;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Encodes and decodes tracks in the lavaplayer message format, using buffers which are reused between calls.
+ * Base64 is decoded straight into the byte buffer and the message is read from it, without intermediate streams or arrays.
+ * <p>
+ * Instances aren't thread-safe, use {@link #local()} to get the instance of the current thread.
+ */
+final class TrackCodec {
+    private static final ThreadLocal<TrackCodec> LOCAL = ThreadLocal.withInitial(TrackCodec::new);
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    private final BufferInput input = new BufferInput();
+    private final BufferOutput output = new BufferOutput();
+    private ByteBuffer buffer = ByteBuffer.allocate(1024);
+    private char[] chars = new char[1024];
+
+    static TrackCodec local() {
+        return LOCAL.get();
+    }
+
+    /**
+     * Decodes a base64 track message.
+     *
+     * @return the track, or null if the message is empty or its source isn't registered.
+     */
+    AudioTrack decode(AudioTrackManager manager, String data) throws IOException {
+        buffer.clear();
+        decodeBase64(data);
+        buffer.flip();
+
+        try {
+            final int header = buffer.getInt();
+            final int flags = header >>> 30;
+            final int size = header & 0x3FFFFFFF;
+            if (size == 0) {
+                return null;
+            }
+            if (size > buffer.remaining()) {
+                throw new EOFException("track message is truncated");
+            }
+
+            buffer.limit(buffer.position() + size);
+            return manager.decodeTrack(input, flags);
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("track message is truncated");
+        }
+    }
+
+    /**
+     * Encodes a track as a base64 track message.
+     */
+    String encode(AudioTrackManager manager, AudioTrack track) throws IOException {
+        buffer.clear();
+        buffer.position(4);
+        final int flags = manager.encodeTrack(output, track);
+        final int size = buffer.position() - 4;
+        buffer.putInt(0, size | flags << 30);
+        buffer.flip();
+
+        return encodeBase64();
+    }
+
+    private void decodeBase64(String data) throws IOException {
+        int length = data.length();
+        while (length > 0 && data.charAt(length - 1) == '=') {
+            length--;
+        }
+        ensureCapacity(length * 3 / 4);
+
+        int bits = 0;
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = data.charAt(i);
+            final int value = c < VALUES.length ? VALUES[c] : -1;
+            if (value < 0) {
+                throw new IOException("invalid base64 character at index " + i);
+            }
+
+            bits = bits << 6 | value;
+            if (++count == 4) {
+                buffer.put((byte) (bits >> 16));
+                buffer.put((byte) (bits >> 8));
+                buffer.put((byte) bits);
+                bits = 0;
+                count = 0;
+            }
+        }
+
+        if (count == 1) {
+            throw new IOException("invalid base64 length");
+        } else if (count == 2) {
+            buffer.put((byte) (bits >> 4));
+        } else if (count == 3) {
+            buffer.put((byte) (bits >> 10));
+            buffer.put((byte) (bits >> 2));
+        }
+    }
+
+    private String encodeBase64() {
+        final int length = buffer.remaining();
+        final int encodedLength = (length + 2) / 3 * 4;
+        if (chars.length < encodedLength) {
+            chars = new char[Math.max(encodedLength, chars.length * 2)];
+        }
+
+        int i = 0;
+        while (buffer.remaining() >= 3) {
+            final int bits = (buffer.get() & 0xFF) << 16 | (buffer.get() & 0xFF) << 8 | (buffer.get() & 0xFF);
+            chars[i++] = ALPHABET[bits >> 18 & 0x3F];
+            chars[i++] = ALPHABET[bits >> 12 & 0x3F];
+            chars[i++] = ALPHABET[bits >> 6 & 0x3F];
+            chars[i++] = ALPHABET[bits & 0x3F];
+        }
+
+        if (buffer.remaining() == 1) {
+            final int bits = (buffer.get() & 0xFF) << 16;
+            chars[i++] = ALPHABET[bits >> 18 & 0x3F];
+            chars[i++] = ALPHABET[bits >> 12 & 0x3F];
+            chars[i++] = '=';
+            chars[i++] = '=';
+        } else if (buffer.remaining() == 2) {
+            final int bits = (buffer.get() & 0xFF) << 16 | (buffer.get() & 0xFF) << 8;
+            chars[i++] = ALPHABET[bits >> 18 & 0x3F];
+            chars[i++] = ALPHABET[bits >> 12 & 0x3F];
+            chars[i++] = ALPHABET[bits >> 6 & 0x3F];
+            chars[i++] = '=';
+        }
+
+        return new String(chars, 0, i);
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+
+        final var larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+        buffer.flip();
+        larger.put(buffer);
+        buffer = larger;
+    }
+
+    /**
+     * Reads the message from the codec's buffer.
+     */
+    private class BufferInput implements DataInput {
+        @Override
+        public void readFully(byte[] b) {
+            buffer.get(b);
+        }
+
+        @Override
+        public void readFully(byte[] b, int off, int len) {
+            buffer.get(b, off, len);
+        }
+
+        @Override
+        public int skipBytes(int n) {
+            final int skipped = Math.min(n, buffer.remaining());
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public boolean readBoolean() {
+            return buffer.get() != 0;
+        }
+
+        @Override
+        public byte readByte() {
+            return buffer.get();
+        }
+
+        @Override
+        public int readUnsignedByte() {
+            return buffer.get() & 0xFF;
+        }
+
+        @Override
+        public short readShort() {
+            return buffer.getShort();
+        }
+
+        @Override
+        public int readUnsignedShort() {
+            return buffer.getShort() & 0xFFFF;
+        }
+
+        @Override
+        public char readChar() {
+            return buffer.getChar();
+        }
+
+        @Override
+        public int readInt() {
+            return buffer.getInt();
+        }
+
+        @Override
+        public long readLong() {
+            return buffer.getLong();
+        }
+
+        @Override
+        public float readFloat() {
+            return buffer.getFloat();
+        }
+
+        @Override
+        public double readDouble() {
+            return buffer.getDouble();
+        }
+
+        /**
+         * Reads a line of bytes, each converted to a char, like {@link java.io.DataInputStream#readLine()}.
+         */
+        @Override
+        public String readLine() {
+            if (!buffer.hasRemaining()) {
+                return null;
+            }
+
+            final var line = new StringBuilder();
+            while (buffer.hasRemaining()) {
+                final char c = (char) (buffer.get() & 0xFF);
+                if (c == '\n') {
+                    break;
+                }
+                if (c == '\r') {
+                    if (buffer.hasRemaining() && buffer.get(buffer.position()) == '\n') {
+                        buffer.get();
+                    }
+                    break;
+                }
+                line.append(c);
+            }
+            return line.toString();
+        }
+
+        @Override
+        public String readUTF() throws IOException {
+            return DataInputStream.readUTF(this);
+        }
+    }
+
+    /**
+     * Writes the message into the codec's buffer, growing it as needed.
+     */
+    private class BufferOutput implements DataOutput {
+        @Override
+        public void write(int b) {
+            ensureCapacity(1);
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b) {
+            write(b, 0, b.length);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensureCapacity(len);
+            buffer.put(b, off, len);
+        }
+
+        @Override
+        public void writeBoolean(boolean v) {
+            write(v ? 1 : 0);
+        }
+
+        @Override
+        public void writeByte(int v) {
+            write(v);
+        }
+
+        @Override
+        public void writeShort(int v) {
+            ensureCapacity(2);
+            buffer.putShort((short) v);
+        }
+
+        @Override
+        public void writeChar(int v) {
+            ensureCapacity(2);
+            buffer.putChar((char) v);
+        }
+
+        @Override
+        public void writeInt(int v) {
+            ensureCapacity(4);
+            buffer.putInt(v);
+        }
+
+        @Override
+        public void writeLong(long v) {
+            ensureCapacity(8);
+            buffer.putLong(v);
+        }
+
+        @Override
+        public void writeFloat(float v) {
+            ensureCapacity(4);
+            buffer.putFloat(v);
+        }
+
+        @Override
+        public void writeDouble(double v) {
+            ensureCapacity(8);
+            buffer.putDouble(v);
+        }
+
+        @Override
+        public void writeBytes(String s) {
+            ensureCapacity(s.length());
+            for (int i = 0; i < s.length(); i++) {
+                buffer.put((byte) s.charAt(i));
+            }
+        }
+
+        @Override
+        public void writeChars(String s) {
+            ensureCapacity(s.length() * 2);
+            for (int i = 0; i < s.length(); i++) {
+                buffer.putChar(s.charAt(i));
+            }
+        }
+
+        /**
+         * Writes the string in modified UTF-8, like {@link java.io.DataOutputStream#writeUTF(String)}.
+         */
+        @Override
+        public void writeUTF(String s) throws IOException {
+            int length = 0;
+            for (int i = 0; i < s.length(); i++) {
+                final char c = s.charAt(i);
+                length += c >= 0x0001 && c <= 0x007F ? 1 : c <= 0x07FF ? 2 : 3;
+            }
+            if (length > 0xFFFF) {
+                throw new UTFDataFormatException("encoded string too long: " + length + " bytes");
+            }
+
+            ensureCapacity(2 + length);
+            buffer.putShort((short) length);
+            for (int i = 0; i < s.length(); i++) {
+                final char c = s.charAt(i);
+                if (c >= 0x0001 && c <= 0x007F) {
+                    buffer.put((byte) c);
+                } else if (c <= 0x07FF) {
+                    buffer.put((byte) (0xC0 | c >> 6 & 0x1F));
+                    buffer.put((byte) (0x80 | c & 0x3F));
+                } else {
+                    buffer.put((byte) (0xE0 | c >> 12 & 0x0F));
+                    buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+                    buffer.put((byte) (0x80 | c & 0x3F));
+                }
+            }
+        }
+    }
+}
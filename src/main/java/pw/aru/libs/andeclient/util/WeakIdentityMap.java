@@ -0,0 +1,54 @@
+package pw.aru.libs.andeclient.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A concurrent map which compares keys by identity and doesn't keep them from being garbage collected.
+ * Entries of collected keys are removed on the following puts, without blocking concurrent readers or writers.
+ */
+final class WeakIdentityMap<K, V> {
+    private final Map<WeakKey<K>, V> map = new ConcurrentHashMap<>();
+    private final ReferenceQueue<K> queue = new ReferenceQueue<>();
+
+    V get(K key) {
+        return map.get(new WeakKey<>(key, null));
+    }
+
+    void put(K key, V value) {
+        expunge();
+        map.put(new WeakKey<>(key, queue), value);
+    }
+
+    private void expunge() {
+        Reference<? extends K> reference;
+        while ((reference = queue.poll()) != null) {
+            map.remove(reference);
+        }
+    }
+
+    private static class WeakKey<K> extends WeakReference<K> {
+        private final int hash;
+
+        WeakKey(K key, ReferenceQueue<K> queue) {
+            super(key, queue);
+            this.hash = System.identityHashCode(key);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof WeakKey)) return false;
+            final var referent = get();
+            return referent != null && referent == ((WeakKey<?>) o).get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package pw.aru.libs.andeclient.test;
+
+import com.grack.nanojson.JsonArray;
+import com.grack.nanojson.JsonObject;
+import com.grack.nanojson.JsonParserException;
+import com.grack.nanojson.JsonWriter;
+import com.sedmelluq.discord.lavaplayer.source.youtube.YoutubeAudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.source.youtube.YoutubeAudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import pw.aru.libs.andeclient.entities.AudioLoadResult;
+import pw.aru.libs.andeclient.util.AndesiteUtil;
+import pw.aru.libs.andeclient.util.AudioTrackUtil;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares sequential and parallel decoding of large synthetic playlists, read from the response body like track loads are.
+ */
+public class PlaylistDecodeBenchmark {
+    private static final int[] SIZES = {100, 1000, 5000, 20000};
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        final var sourceManager = new YoutubeAudioSourceManager();
+
+        for (int size : SIZES) {
+            final var json = syntheticPlaylist(sourceManager, size);
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                sequential(json);
+                parallel(json);
+            }
+
+            long sequentialTime = 0;
+            long parallelTime = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                long start = System.nanoTime();
+                sequential(json);
+                sequentialTime += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                parallel(json);
+                parallelTime += System.nanoTime() - start;
+            }
+
+            System.out.printf(
+                "[PlaylistDecodeBenchmark] %6d tracks | sequential %8.2fms | parallel %8.2fms | speedup %.2fx%n",
+                size, sequentialTime / 1e6 / ROUNDS, parallelTime / 1e6 / ROUNDS, (double) sequentialTime / parallelTime
+            );
+        }
+    }
+
+    private static AudioLoadResult sequential(byte[] json) {
+        return read(json, Integer.MAX_VALUE);
+    }
+
+    private static AudioLoadResult parallel(byte[] json) {
+        return read(json, 0);
+    }
+
+    private static AudioLoadResult read(byte[] json, int parallelThreshold) {
+        try {
+            return AndesiteUtil.audioLoadResult(new ByteArrayInputStream(json), ForkJoinPool.commonPool(), parallelThreshold, false)
+                .toCompletableFuture()
+                .join();
+        } catch (JsonParserException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] syntheticPlaylist(YoutubeAudioSourceManager sourceManager, int size) {
+        final var tracks = new JsonArray();
+        for (int i = 0; i < size; i++) {
+            final var identifier = String.format("synthetic%02d", i);
+            final var info = new AudioTrackInfo(
+                "Synthetic track #" + i, "Synthetic author", 180_000 + i, identifier, false,
+                "https://www.youtube.com/watch?v=" + identifier
+            );
+            tracks.add(JsonObject.builder().value("track", AudioTrackUtil.fromTrack(new YoutubeAudioTrack(info, sourceManager))).done());
+        }
+
+        // @formatter:off
+        final var json = JsonObject.builder()
+            .value("loadType", "PLAYLIST_LOADED")
+            .value("tracks", tracks)
+            .object("playlistInfo")
+                .value("name", "Synthetic playlist")
+                .value("selectedTrack", -1)
+            .end()
+            .done();
+        // @formatter:on
+
+        return JsonWriter.string(json).getBytes(StandardCharsets.UTF_8);
+    }
+}